@@ -0,0 +1,22 @@
+package org.virajshah.monopoly.core;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.Runner;
+
+/**
+ * Runs the benchmarks with the gc profiler attached, so every result reports
+ * the allocation rate next to ops/s. Command line arguments are passed to JMH
+ * (e.g. a benchmark name filter).
+ *
+ * @author Viraj Shah
+ */
+public class BenchmarkRunner {
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		new Runner(new OptionsBuilder().parent(new CommandLineOptions(args)).addProfiler(GCProfiler.class).build())
+				.run();
+	}
+}
@@ -0,0 +1,143 @@
+package org.virajshah.monopoly.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.virajshah.monopoly.logs.Logger;
+
+/**
+ * Benchmarks of whole turns, card draws and whole games
+ *
+ * @author Viraj Shah
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EngineBenchmarks {
+	/**
+	 * The number of turns played by each batch of playTurn
+	 */
+	private static final int TURNS = 32;
+
+	/**
+	 * The number of cards drawn by each batch of pickupChance and
+	 * pickupCommunityChest (one pass through a deck)
+	 */
+	private static final int DECK = 16;
+
+	/**
+	 * Plays the next TURNS turns of the position (the score is the time of the
+	 * whole batch)
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Warmup(iterations = 20, batchSize = TURNS)
+	@Measurement(iterations = 50, batchSize = TURNS)
+	public MonopolyGame playTurn(GamePosition.Fresh position) {
+		position.game.nextPlayer();
+		position.game.playTurn();
+		return position.game;
+	}
+
+	/**
+	 * Forks the position, as a rollout does before playing on
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@BenchmarkMode(Mode.AverageTime)
+	public MonopolyGame fork(GamePosition position) {
+		return position.game.fork(42);
+	}
+
+	/**
+	 * Draws a chance card, without applying it; the draw does not allocate, which
+	 * the gc profiler can confirm here
+	 */
+	@Benchmark
+	public Card drawChance(GamePosition position) {
+		return position.game.getContext().drawChanceCard();
+	}
+
+	/**
+	 * Draws a community chest card, without applying it
+	 */
+	@Benchmark
+	public Card drawCommunityChest(GamePosition position) {
+		return position.game.getContext().drawCommunityChestCard();
+	}
+
+	/**
+	 * Draws the whole chance deck and applies every card to the player (the score
+	 * is the time of the whole batch)
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Warmup(iterations = 20, batchSize = DECK)
+	@Measurement(iterations = 50, batchSize = DECK)
+	public void pickupChance(GamePosition.Fresh position, Blackhole blackhole) {
+		Card card = position.game.getContext().drawChanceCard();
+		card.pickup(position.player);
+		blackhole.consume(position.player.getPosition());
+	}
+
+	/**
+	 * Draws the whole community chest deck and applies every card to the player
+	 * (the score is the time of the whole batch)
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Warmup(iterations = 20, batchSize = DECK)
+	@Measurement(iterations = 50, batchSize = DECK)
+	public void pickupCommunityChest(GamePosition.Fresh position, Blackhole blackhole) {
+		Card card = position.game.getContext().drawCommunityChestCard();
+		card.pickup(position.player);
+		blackhole.consume(position.player.getBalance());
+	}
+
+	/**
+	 * The games played by fullGame
+	 */
+	@State(Scope.Benchmark)
+	public static class Games {
+		/**
+		 * The index of the game within the seeded batch
+		 */
+		@Param({ "1", "2" })
+		public long index;
+	}
+
+	/**
+	 * Plays a seeded game from the first turn to the end
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 2)
+	@Measurement(iterations = 5)
+	public MonopolyGame fullGame(Games games) {
+		MonopolyGame game = new MonopolyGame(42, games.index);
+		game.getLogger().setPrintingEnabled(false);
+		game.getLogger().setLevel(Logger.Level.OFF);
+
+		while (game.isRunning()) {
+			game.nextPlayer();
+			game.playTurn();
+		}
+		return game;
+	}
+}
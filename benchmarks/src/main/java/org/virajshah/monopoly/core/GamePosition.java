@@ -0,0 +1,129 @@
+package org.virajshah.monopoly.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.virajshah.monopoly.journal.GameJournal;
+import org.virajshah.monopoly.journal.JournalReplayer;
+import org.virajshah.monopoly.logs.Logger;
+
+/**
+ * A seeded board position from the early, middle or late part of a game.
+ * The game is played once per trial while being journaled; every benchmark
+ * position is then rebuilt from the journal, which is far cheaper than playing
+ * the game again.
+ *
+ * @author Viraj Shah
+ */
+@State(Scope.Thread)
+public class GamePosition {
+	/**
+	 * The seed of the game the positions are taken from (a long game, so every
+	 * phase exists)
+	 */
+	private static final long SEED = MonopolyGame.seedFor(42, 0);
+
+	/**
+	 * The part of the game the position is taken from
+	 */
+	@Param({ "EARLY", "MID", "LATE" })
+	public String phase;
+
+	/**
+	 * The journal of the seeded game up to the position
+	 */
+	private JournalReplayer replayer;
+
+	/**
+	 * The number of turns played in the position
+	 */
+	private int turn;
+
+	/**
+	 * The game rebuilt at the position
+	 */
+	public MonopolyGame game;
+
+	/**
+	 * The player with the most assets in the position
+	 */
+	public Player player;
+
+	/**
+	 * @param phase EARLY, MID or LATE
+	 * @return The number of turns played before the position
+	 */
+	private static int turnsFor(String phase) {
+		switch (phase) {
+		case "EARLY":
+			return 15;
+		case "MID":
+			return 80;
+		default:
+			return 250;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void journal() throws IOException {
+		Path file = Files.createTempFile("monopoly-benchmark-", ".journal");
+		MonopolyGame original = new MonopolyGame(SEED);
+		quiet(original);
+
+		turn = turnsFor(phase);
+		try (GameJournal journal = GameJournal.record(original, file)) {
+			while (original.isRunning() && original.getTurnsPlayed() < turn) {
+				original.nextPlayer();
+				original.playTurn();
+			}
+		}
+
+		replayer = new JournalReplayer(file);
+		Files.deleteIfExists(file);
+		rebuild();
+	}
+
+	/**
+	 * Rebuilds the position, undoing anything a benchmark did to it
+	 */
+	protected void rebuild() {
+		game = replayer.rebuild(turn);
+		quiet(game);
+
+		player = game.getPlayers().get(0);
+		for (Player p : game.getPlayers())
+			if (p.getAssets().size() > player.getAssets().size())
+				player = p;
+	}
+
+	private static void quiet(MonopolyGame game) {
+		game.getLogger().setPrintingEnabled(false);
+		game.getLogger().setLevel(Logger.Level.OFF);
+	}
+
+	@TearDown(Level.Trial)
+	public void close() {
+		replayer = null;
+	}
+
+	/**
+	 * A position which is rebuilt before every iteration, for benchmarks which
+	 * change the game. Such benchmarks run as a batch of invocations per
+	 * iteration (SingleShotTime with a batchSize), so every batch starts from the
+	 * same position and no rebuild is timed.
+	 */
+	public static class Fresh extends GamePosition {
+		@Setup(Level.Iteration)
+		public void reset() {
+			rebuild();
+		}
+	}
+}
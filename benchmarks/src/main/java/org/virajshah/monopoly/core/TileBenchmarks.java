@@ -0,0 +1,69 @@
+package org.virajshah.monopoly.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.virajshah.monopoly.tiles.PropertyTile;
+import org.virajshah.monopoly.tiles.Tile;
+
+/**
+ * Benchmarks of rent and monopoly checks over every owned property on the
+ * board
+ *
+ * @author Viraj Shah
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TileBenchmarks {
+	/**
+	 * Computes the rent of every owned property
+	 */
+	@Benchmark
+	public int getRent(GamePosition position) {
+		int total = 0;
+		for (int i = 0; i < GameState.TILES; i++) {
+			Tile tile = position.game.tileAt(i);
+			if (tile.getType() == Tile.TileType.PROPERTY && ((PropertyTile) tile).isOwned())
+				total += ((PropertyTile) tile).getRent();
+		}
+		return total;
+	}
+
+	/**
+	 * Reads the rent of every owned property straight from the game state, as
+	 * landing on a tile does
+	 */
+	@Benchmark
+	public int getStateRent(GamePosition position) {
+		GameState state = position.game.getState();
+		int total = 0;
+		for (int i = 0; i < GameState.TILES; i++)
+			if (state.getOwner(i) != GameState.NO_OWNER)
+				total += state.getRent(i);
+		return total;
+	}
+
+	/**
+	 * Checks every owned property for a monopoly
+	 */
+	@Benchmark
+	public int isMonopoly(GamePosition position) {
+		int monopolies = 0;
+		for (int i = 0; i < GameState.TILES; i++) {
+			Tile tile = position.game.tileAt(i);
+			if (tile.getType() == Tile.TileType.PROPERTY && ((PropertyTile) tile).isOwned()
+					&& ((PropertyTile) tile).isMonopoly())
+				monopolies++;
+		}
+		return monopolies;
+	}
+}
@@ -0,0 +1,93 @@
+package org.virajshah.monopoly.core;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.virajshah.monopoly.tiles.OwnableTile;
+
+/**
+ * Benchmarks of the trade broker's valuations and trade search. Every
+ * benchmark uses the player's own broker, as the engine does, so it measures
+ * the cached valuations; buildBestTradeOfferColdCache builds a new broker on
+ * each call to measure an empty cache.
+ *
+ * @author Viraj Shah
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TradeBrokerBenchmarks {
+	/**
+	 * Values every asset of the player
+	 */
+	@Benchmark
+	public int valueToClient(GamePosition position) {
+		TradeBroker broker = position.player.getBroker();
+		int total = 0;
+		for (OwnableTile asset : position.player.getAssets())
+			total += broker.valueToClient(asset);
+		return total;
+	}
+
+	/**
+	 * Ranks the assets the player most wants
+	 */
+	@Benchmark
+	public List<OwnableTile> mostWantedProperties(GamePosition position) {
+		return position.player.getBroker().mostWantedProperties();
+	}
+
+	/**
+	 * Sorts the player's assets by value
+	 */
+	@Benchmark
+	public List<OwnableTile> sortAssetsByWorth(GamePosition position) {
+		position.player.getBroker().sortAssetsByWorth();
+		return position.player.getAssets();
+	}
+
+	/**
+	 * Looks for the best trade between the player and every other player, as
+	 * buildBestTradeOffer does, without executing it so that the position never
+	 * changes
+	 */
+	@Benchmark
+	public int buildBestTradeOffer(GamePosition position) {
+		return proposeTrades(position, position.player.getBroker());
+	}
+
+	/**
+	 * Looks for the best trade as buildBestTradeOffer does, with a new broker
+	 * whose valuations are not cached yet
+	 */
+	@Benchmark
+	public int buildBestTradeOfferColdCache(GamePosition position) {
+		return proposeTrades(position, new TradeBroker(position.player));
+	}
+
+	/**
+	 * @param position The position
+	 * @param broker   The broker of the position's player
+	 * @return The number of affordable trades with the other players
+	 */
+	private static int proposeTrades(GamePosition position, TradeBroker broker) {
+		int trades = 0;
+		for (Player other : position.game.getActivePlayers()) {
+			if (other == position.player)
+				continue;
+			TradeOffer deal = broker.proposeTrade(other);
+			if (deal != null && deal.isAffordable())
+				trades++;
+		}
+		return trades;
+	}
+}
@@ -0,0 +1,153 @@
+package org.virajshah.monopoly;
+
+import org.virajshah.monopoly.analysis.GameStatistics;
+import org.virajshah.monopoly.core.MonopolyGame;
+
+/**
+ * The merged outcome of a batch of simulated games. Results are only ever
+ * combined by addition and maximum, so the merged totals are the same no matter
+ * how the batch was split between threads.
+ *
+ * @author Viraj Shah
+ */
+public class BatchResult {
+	/**
+	 * The number of games played
+	 */
+	private long games;
+
+	/**
+	 * The total number of turns played across all games
+	 */
+	private long turns;
+
+	/**
+	 * The number of turns played in the longest game
+	 */
+	private int longestGame;
+
+	/**
+	 * The number of games which were stopped by the turn limit
+	 */
+	private long unfinishedGames;
+
+	/**
+	 * The number of games which were stopped by an exception
+	 */
+	private long failedGames;
+
+	/**
+	 * The per-tile and per-seat statistics of every game; null until the batch
+	 * has finished
+	 */
+	private GameStatistics statistics;
+
+	/**
+	 * Constructs an empty result
+	 */
+	public BatchResult() {
+		games = 0;
+		turns = 0;
+		longestGame = 0;
+		unfinishedGames = 0;
+		failedGames = 0;
+	}
+
+	/**
+	 * Records a single finished game
+	 *
+	 * @param game The game to record
+	 */
+	void record(MonopolyGame game) {
+		games++;
+		turns += game.getTurnsPlayed();
+		longestGame = Math.max(longestGame, game.getTurnsPlayed());
+
+		if (game.reachedTurnLimit())
+			unfinishedGames++;
+
+		if (game.getContext().getFailure() != null)
+			failedGames++;
+	}
+
+	/**
+	 * Adds another result into this one, including its statistics if both have
+	 * them
+	 *
+	 * @param other The result to merge into this one
+	 * @return This result
+	 */
+	BatchResult merge(BatchResult other) {
+		if (statistics != null && other.statistics != null)
+			statistics.merge(other.statistics);
+		games += other.games;
+		turns += other.turns;
+		longestGame = Math.max(longestGame, other.longestGame);
+		unfinishedGames += other.unfinishedGames;
+		failedGames += other.failedGames;
+		return this;
+	}
+
+	/**
+	 * @return The number of games played
+	 */
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 * @return The total number of turns played across all games
+	 */
+	public long getTurns() {
+		return turns;
+	}
+
+	/**
+	 * @return The number of turns played in the longest game
+	 */
+	public int getLongestGame() {
+		return longestGame;
+	}
+
+	/**
+	 * @return The number of games which were stopped by the turn limit
+	 */
+	public long getUnfinishedGames() {
+		return unfinishedGames;
+	}
+
+	/**
+	 * @return The number of games which were stopped by an exception
+	 */
+	public long getFailedGames() {
+		return failedGames;
+	}
+
+	/**
+	 * @return The per-tile and per-seat statistics of every game in the batch
+	 */
+	public GameStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * @param statistics The per-tile and per-seat statistics of every game in the
+	 *                   batch
+	 */
+	void setStatistics(GameStatistics statistics) {
+		this.statistics = statistics;
+	}
+
+	/**
+	 * @return The mean number of turns per game
+	 */
+	public double getMeanTurns() {
+		return games != 0 ? (double) turns / games : 0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d games, %.1f turns/game (longest %d), %d stopped by turn limit, %d failed", games,
+				getMeanTurns(), longestGame, unfinishedGames, failedGames);
+	}
+}
@@ -0,0 +1,251 @@
+package org.virajshah.monopoly;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+import org.virajshah.monopoly.analysis.GameStatistics;
+import org.virajshah.monopoly.core.MonopolyGame;
+import org.virajshah.monopoly.logs.Logger;
+import org.virajshah.monopoly.store.OutcomeExporter;
+import org.virajshah.monopoly.store.ResultStore;
+
+/**
+ * Runs a large batch of independent games across every core of the machine.
+ * The batch is split in half recursively until each piece holds only a few
+ * games, so that idle workers can steal work from a worker which is stuck on a
+ * run of long games. Every game is played by exactly one worker. Games share
+ * no mutable state: each has its own GameContext (decks, logger and
+ * termination) and its own random stream, derived from the master seed and the
+ * game's index, so game i of a batch always plays the same way, and a game
+ * which fails stops only itself.
+ *
+ * Statistics are collected by one GameStatistics per piece of the batch and
+ * merged along the same split tree as the rest of the results, so workers never
+ * contend on counters and every total, including the floating-point means and
+ * variances, is the same no matter how many threads run the batch.
+ *
+ * @author Viraj Shah
+ */
+public class BatchSimulator {
+	/**
+	 * The default number of games played by a single task without splitting it
+	 * further
+	 */
+	public static final int DEFAULT_GRAIN = 16;
+
+	/**
+	 * The pool which plays the games
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * The number of games played by a single task without splitting it further
+	 */
+	private final int grain;
+
+	/**
+	 * The seed from which the random stream of every game is derived
+	 */
+	private final long masterSeed;
+
+	/**
+	 * The store every game's outcome is recorded in; null if outcomes are not
+	 * stored
+	 */
+	private ResultStore resultStore;
+
+	/**
+	 * Streams every game's outcome (and every turn, if asked for) to a file; null
+	 * if outcomes are not exported
+	 */
+	private OutcomeExporter exporter;
+
+	/**
+	 * Constructs a simulator which uses the common fork-join pool and a random
+	 * master seed
+	 */
+	public BatchSimulator() {
+		this(new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Constructs a reproducible simulator which uses the common fork-join pool
+	 *
+	 * @param masterSeed The seed from which the random stream of every game is
+	 *                   derived
+	 */
+	public BatchSimulator(long masterSeed) {
+		this(ForkJoinPool.commonPool(), DEFAULT_GRAIN, masterSeed);
+	}
+
+	/**
+	 * Constructs a simulator
+	 *
+	 * @param pool       The pool which plays the games
+	 * @param grain      The number of games played by a single task without
+	 *                   splitting it further
+	 * @param masterSeed The seed from which the random stream of every game is
+	 *                   derived
+	 */
+	public BatchSimulator(ForkJoinPool pool, int grain, long masterSeed) {
+		if (grain < 1)
+			throw new IllegalArgumentException("Grain must be at least 1: " + grain);
+
+		this.pool = pool;
+		this.grain = grain;
+		this.masterSeed = masterSeed;
+	}
+
+	/**
+	 * @return The seed from which the random stream of every game is derived
+	 */
+	public long getMasterSeed() {
+		return masterSeed;
+	}
+
+	/**
+	 * @param resultStore The store to record every game's outcome in, at the row
+	 *                    of the game's index; null to stop storing outcomes
+	 */
+	public void setResultStore(ResultStore resultStore) {
+		this.resultStore = resultStore;
+	}
+
+	/**
+	 * @param exporter The exporter to stream every game's outcome to; null to stop
+	 *                 exporting
+	 */
+	public void setExporter(OutcomeExporter exporter) {
+		this.exporter = exporter;
+	}
+
+	/**
+	 * Plays a batch of games and merges their results
+	 *
+	 * @param games The number of games to play
+	 * @return The merged results of every game
+	 */
+	public BatchResult run(long games) {
+		return run(0, games);
+	}
+
+	/**
+	 * Plays games in batches until their statistics satisfy a stopping rule, such
+	 * as ConvergenceTargets. The rule is checked after every batch, so at most one
+	 * batch is played past the point where it is satisfied. The games played are
+	 * the first games of the master seed, so a run which stops after n games
+	 * plays the same games as run(n) and gives the same counts. The
+	 * floating-point statistics are merged batch by batch instead of along
+	 * run(n)'s split tree, so their last bits may differ from run(n), but they
+	 * are the same on every run with the same batch size, whatever the number of
+	 * threads.
+	 *
+	 * @param done     The stopping rule, given the statistics of every game so far
+	 * @param batch    The number of games played between checks
+	 * @param maxGames The most games to play if the rule is never satisfied
+	 * @return The merged results of every game played
+	 */
+	public BatchResult runUntil(Predicate<GameStatistics> done, long batch, long maxGames) {
+		if (batch < 1)
+			throw new IllegalArgumentException("Batch must be at least 1: " + batch);
+
+		BatchResult total = new BatchResult();
+		total.setStatistics(new GameStatistics());
+
+		for (long played = 0; played < maxGames;) {
+			long next = Math.min(maxGames, played + batch);
+			total.merge(run(played, next));
+			played = next;
+
+			if (done.test(total.getStatistics()))
+				break;
+		}
+
+		return total;
+	}
+
+	/**
+	 * Plays the games with indices in [from, to) and merges their results
+	 */
+	private BatchResult run(long from, long to) {
+		return pool.invoke(new BatchTask(from, to));
+	}
+
+	/**
+	 * Plays a single game to completion. A game which throws is stopped and
+	 * recorded as failed instead of aborting the whole batch.
+	 *
+	 * @param index      The index of the game within the batch
+	 * @param statistics The statistics to record the game in
+	 * @return The finished game
+	 */
+	MonopolyGame playGame(long index, GameStatistics statistics) {
+		MonopolyGame game = new MonopolyGame(masterSeed, index);
+		game.getLogger().setPrintingEnabled(false);
+		game.getLogger().setLevel(Logger.Level.WARN);
+		statistics.observe(game);
+
+		try {
+			while (game.isRunning()) {
+				game.nextPlayer();
+				game.playTurn();
+				if (exporter != null)
+					exporter.turn(index, game);
+			}
+		} catch (RuntimeException e) {
+			game.getContext().fail(e);
+		}
+
+		statistics.record(game);
+		if (resultStore != null)
+			resultStore.record(index, game, statistics);
+		if (exporter != null)
+			exporter.game(index, game);
+		return game;
+	}
+
+	/**
+	 * Plays the games with indices in [from, to). The split points only depend on
+	 * the range and the grain, so the results are merged in the same order no
+	 * matter how many threads run the batch.
+	 */
+	private class BatchTask extends RecursiveTask<BatchResult> {
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The index of the first game (inclusive)
+		 */
+		private final long from;
+
+		/**
+		 * The index of the last game (exclusive)
+		 */
+		private final long to;
+
+		BatchTask(long from, long to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected BatchResult compute() {
+			if (to - from <= grain) {
+				BatchResult result = new BatchResult();
+				GameStatistics statistics = new GameStatistics();
+				for (long i = from; i < to; i++)
+					result.record(playGame(i, statistics));
+				result.setStatistics(statistics);
+				return result;
+			}
+
+			long mid = (from + to) >>> 1;
+			BatchTask left = new BatchTask(from, mid);
+			BatchTask right = new BatchTask(mid, to);
+			right.fork();
+			BatchResult result = left.compute();
+			return result.merge(right.join());
+		}
+	}
+}
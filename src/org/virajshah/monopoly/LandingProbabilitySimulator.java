@@ -0,0 +1,31 @@
+package org.virajshah.monopoly;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.virajshah.monopoly.analysis.MarkovLandingEngine;
+import org.virajshah.monopoly.tiles.Tile;
+
+/**
+ * Prints the long-run probability of landing on each tile, computed exactly
+ * from the Markov chain of the board instead of by simulating games
+ * 
+ * @author Viraj Shah
+ */
+public class LandingProbabilitySimulator {
+	/**
+	 * The number of rolls to compute transient distributions for
+	 */
+	private static final int TURNS = 100;
+
+	public static void main(String[] args) {
+		Path cacheDirectory = Paths.get(System.getProperty("java.io.tmpdir"), "monopoly-simulator");
+		MarkovLandingEngine engine = MarkovLandingEngine.load(cacheDirectory, TURNS);
+		Tile[] board = Tile.buildBoard(null);
+		double[] landings = engine.getStationaryDistribution();
+
+		for (int i = 0; i < board.length; i++)
+			System.out.println(String.format("%2d %-24s %.4f%%", i, board[i].getName(), landings[i] * 100));
+		System.out.println(String.format("   %-24s %.4f%%", "(in jail)", engine.getJailProbability() * 100));
+	}
+}
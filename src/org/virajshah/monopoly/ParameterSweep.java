@@ -0,0 +1,293 @@
+package org.virajshah.monopoly;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.virajshah.monopoly.core.DefaultStrategy;
+import org.virajshah.monopoly.core.MonopolyGame;
+import org.virajshah.monopoly.core.ParameterizedStrategy;
+import org.virajshah.monopoly.core.ParameterizedStrategy.Parameter;
+import org.virajshah.monopoly.core.Strategy;
+import org.virajshah.monopoly.logs.Logger;
+
+/**
+ * Searches a grid of strategy parameters for the configurations which win most
+ * often against DefaultStrategy, using successive halving: every candidate
+ * plays a few games, the better half plays more, and so on until one is left,
+ * so most of the game budget goes to the candidates which are still in the
+ * running.
+ *
+ * A candidate plays one seat against three DefaultStrategy players, rotating
+ * through the seats. Game i of every candidate plays from the same random
+ * stream and the same seat, so candidates are compared on the same dice, and a
+ * candidate keeps the games it played in earlier rungs.
+ *
+ * @author Viraj Shah
+ */
+public class ParameterSweep {
+	/**
+	 * The number of seats at a table
+	 */
+	private static final int SEATS = 4;
+
+	/**
+	 * The values tried for each parameter which is swept
+	 */
+	private final Map<Parameter, double[]> ranges = new LinkedHashMap<>();
+
+	/**
+	 * The strategy which every candidate starts from
+	 */
+	private final ParameterizedStrategy base;
+
+	/**
+	 * The pool which plays the games
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * The seed from which the random stream of every game is derived
+	 */
+	private final long masterSeed;
+
+	/**
+	 * Constructs a sweep around the standard parameters which uses the common
+	 * fork-join pool and a random master seed
+	 */
+	public ParameterSweep() {
+		this(new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Constructs a reproducible sweep around the standard parameters which uses
+	 * the common fork-join pool
+	 *
+	 * @param masterSeed The seed from which the random stream of every game is
+	 *                   derived
+	 */
+	public ParameterSweep(long masterSeed) {
+		this(DefaultStrategy.INSTANCE, ForkJoinPool.commonPool(), masterSeed);
+	}
+
+	/**
+	 * Constructs a sweep
+	 *
+	 * @param base       The strategy which every candidate starts from; parameters
+	 *                   which are not swept keep its values
+	 * @param pool       The pool which plays the games
+	 * @param masterSeed The seed from which the random stream of every game is
+	 *                   derived
+	 */
+	public ParameterSweep(ParameterizedStrategy base, ForkJoinPool pool, long masterSeed) {
+		this.base = base;
+		this.pool = pool;
+		this.masterSeed = masterSeed;
+	}
+
+	/**
+	 * Sweeps a parameter over evenly spaced values
+	 *
+	 * @param parameter The parameter to sweep
+	 * @param from      The first value
+	 * @param to        The last value
+	 * @param steps     The number of values (at least 1)
+	 * @return This sweep
+	 */
+	public ParameterSweep vary(Parameter parameter, double from, double to, int steps) {
+		if (steps < 1)
+			throw new IllegalArgumentException("A parameter needs at least one value: " + steps);
+
+		double[] values = new double[steps];
+		for (int i = 0; i < steps; i++)
+			values[i] = steps == 1 ? from : from + (to - from) * i / (steps - 1);
+		return vary(parameter, values);
+	}
+
+	/**
+	 * Sweeps a parameter over the given values
+	 *
+	 * @param parameter The parameter to sweep
+	 * @param values    The values to try
+	 * @return This sweep
+	 */
+	public ParameterSweep vary(Parameter parameter, double... values) {
+		if (values.length == 0)
+			throw new IllegalArgumentException("A parameter needs at least one value");
+
+		ranges.put(parameter, values.clone());
+		return this;
+	}
+
+	/**
+	 * @return Every combination of the swept values, in grid order
+	 */
+	List<ParameterizedStrategy> candidates() {
+		List<ParameterizedStrategy> candidates = new ArrayList<>();
+		candidates.add(base);
+
+		for (Map.Entry<Parameter, double[]> range : ranges.entrySet()) {
+			List<ParameterizedStrategy> next = new ArrayList<>(candidates.size() * range.getValue().length);
+			for (ParameterizedStrategy candidate : candidates)
+				for (double value : range.getValue())
+					next.add(candidate.with(range.getKey(), value));
+			candidates = next;
+		}
+
+		return candidates;
+	}
+
+	/**
+	 * Runs the sweep. The budget is split evenly between the rungs; within a rung,
+	 * every candidate still in the running gets the same number of games, and the
+	 * better half (by games won) goes on to the next rung.
+	 *
+	 * @param budget The total number of games to play
+	 * @return Every candidate, best first
+	 */
+	public SweepResult run(long budget) {
+		List<ParameterizedStrategy> candidates = candidates();
+		int count = candidates.size();
+		int rungs = Math.max(1, 64 - Long.numberOfLeadingZeros(count - 1));
+
+		long[] played = new long[count];
+		long[] wins = new long[count];
+		int[] reached = new int[count];
+		int[] alive = new int[count];
+		for (int i = 0; i < count; i++)
+			alive[i] = i;
+		int survivors = count;
+
+		for (int rung = 0; rung < rungs && survivors > 0; rung++) {
+			long target = played[alive[0]] + Math.max(1, budget / rungs / survivors);
+			long[] won = pool.invoke(new SweepTask(candidates, alive, survivors, played[alive[0]], target, 0,
+					survivors * (target - played[alive[0]])));
+
+			for (int i = 0; i < survivors; i++) {
+				wins[alive[i]] += won[i];
+				played[alive[i]] = target;
+				reached[alive[i]] = rung;
+			}
+
+			if (rung < rungs - 1) {
+				int[] ranked = rank(alive, survivors, wins);
+				survivors = (survivors + 1) / 2;
+				alive = Arrays.copyOf(ranked, survivors);
+				Arrays.sort(alive);
+			}
+		}
+
+		return new SweepResult(candidates, played, wins, reached);
+	}
+
+	/**
+	 * @param alive     The candidates still in the running
+	 * @param survivors The number of candidates in alive
+	 * @param wins      The games won by each candidate
+	 * @return The candidates ordered by games won, most first (ties go to the
+	 *         earlier candidate)
+	 */
+	private static int[] rank(int[] alive, int survivors, long[] wins) {
+		Integer[] order = new Integer[survivors];
+		for (int i = 0; i < survivors; i++)
+			order[i] = alive[i];
+		Arrays.sort(order, (a, b) -> wins[a] != wins[b] ? Long.compare(wins[b], wins[a]) : Integer.compare(a, b));
+
+		int[] ranked = new int[survivors];
+		for (int i = 0; i < survivors; i++)
+			ranked[i] = order[i];
+		return ranked;
+	}
+
+	/**
+	 * Plays game i of a candidate: the candidate sits at seat i % SEATS and
+	 * DefaultStrategy in the others
+	 *
+	 * @param candidate The candidate
+	 * @param game      The index of the game within the candidate's games
+	 * @return True if the candidate won
+	 */
+	boolean playGame(Strategy candidate, long game) {
+		MonopolyGame monopoly = new MonopolyGame(masterSeed, game);
+		monopoly.getLogger().setPrintingEnabled(false);
+		monopoly.getLogger().setLevel(Logger.Level.WARN);
+
+		int seat = (int) (game % SEATS);
+		for (int i = 0; i < SEATS; i++)
+			monopoly.getPlayers().get(i).setStrategy(i == seat ? candidate : DefaultStrategy.INSTANCE);
+
+		try {
+			while (monopoly.isRunning()) {
+				monopoly.nextPlayer();
+				monopoly.playTurn();
+			}
+		} catch (RuntimeException e) {
+			monopoly.getContext().fail(e);
+			return false;
+		}
+
+		return monopoly.getWinnerSeat() == seat;
+	}
+
+	/**
+	 * Plays games [from, to) of every candidate still in the running, as the flat
+	 * range [first, last) of (candidate, game) pairs. Returns the games won by
+	 * each of the candidates, in the order of alive.
+	 */
+	private class SweepTask extends RecursiveTask<long[]> {
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The number of games played by a single task without splitting it further
+		 */
+		private static final int GRAIN = BatchSimulator.DEFAULT_GRAIN;
+
+		private final List<ParameterizedStrategy> candidates;
+		private final int[] alive;
+		private final int survivors;
+		private final long from;
+		private final long to;
+		private final long first;
+		private final long last;
+
+		SweepTask(List<ParameterizedStrategy> candidates, int[] alive, int survivors, long from, long to,
+				long first, long last) {
+			this.candidates = candidates;
+			this.alive = alive;
+			this.survivors = survivors;
+			this.from = from;
+			this.to = to;
+			this.first = first;
+			this.last = last;
+		}
+
+		@Override
+		protected long[] compute() {
+			if (last - first <= GRAIN) {
+				long[] won = new long[survivors];
+				long games = to - from;
+				for (long i = first; i < last; i++) {
+					int slot = (int) (i / games);
+					if (playGame(candidates.get(alive[slot]), from + i % games))
+						won[slot]++;
+				}
+				return won;
+			}
+
+			long mid = (first + last) >>> 1;
+			SweepTask left = new SweepTask(candidates, alive, survivors, from, to, first, mid);
+			SweepTask right = new SweepTask(candidates, alive, survivors, from, to, mid, last);
+			right.fork();
+			long[] won = left.compute();
+			long[] other = right.join();
+			for (int i = 0; i < won.length; i++)
+				won[i] += other[i];
+			return won;
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package org.virajshah.monopoly;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.virajshah.monopoly.analysis.ConfidenceInterval;
+import org.virajshah.monopoly.core.ParameterizedStrategy;
+
+/**
+ * The outcome of a parameter sweep: every candidate with the games it played
+ * and won before it was dropped, best first. Candidates which lasted more rungs
+ * rank above those dropped earlier; within a rung, candidates are ranked by win
+ * rate.
+ *
+ * @author Viraj Shah
+ */
+public class SweepResult {
+	/**
+	 * A candidate of the sweep
+	 */
+	public static class Candidate {
+		private final ParameterizedStrategy strategy;
+		private final long played;
+		private final long wins;
+		private final int rung;
+
+		Candidate(ParameterizedStrategy strategy, long played, long wins, int rung) {
+			this.strategy = strategy;
+			this.played = played;
+			this.wins = wins;
+			this.rung = rung;
+		}
+
+		/**
+		 * @return The strategy with the candidate's parameters
+		 */
+		public ParameterizedStrategy getStrategy() {
+			return strategy;
+		}
+
+		/**
+		 * @return The number of games the candidate played
+		 */
+		public long getPlayed() {
+			return played;
+		}
+
+		/**
+		 * @return The number of games the candidate won
+		 */
+		public long getWins() {
+			return wins;
+		}
+
+		/**
+		 * @return The last rung the candidate played in (0 for the first)
+		 */
+		public int getRung() {
+			return rung;
+		}
+
+		/**
+		 * @return The share of its games the candidate won, with its 95% Wilson
+		 *         score interval
+		 */
+		public ConfidenceInterval getWinRate() {
+			return ConfidenceInterval.wilson(wins, played, ConfidenceInterval.Z_95);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("rung %d %8d played %8d won  %s  %s", rung, played, wins, getWinRate(),
+					strategy.getName());
+		}
+	}
+
+	/**
+	 * Every candidate, best first
+	 */
+	private final List<Candidate> candidates;
+
+	/**
+	 * Constructs a result
+	 *
+	 * @param strategies The candidates, in grid order
+	 * @param played     The games played by each candidate
+	 * @param wins       The games won by each candidate
+	 * @param reached    The last rung each candidate played in
+	 */
+	SweepResult(List<ParameterizedStrategy> strategies, long[] played, long[] wins, int[] reached) {
+		List<Candidate> ranked = new ArrayList<>(strategies.size());
+		for (int i = 0; i < strategies.size(); i++)
+			ranked.add(new Candidate(strategies.get(i), played[i], wins[i], reached[i]));
+
+		ranked.sort(Comparator.comparingInt(Candidate::getRung).reversed()
+				.thenComparing(Comparator.comparingDouble((Candidate c) -> c.getWinRate().getEstimate()).reversed()));
+		candidates = Collections.unmodifiableList(ranked);
+	}
+
+	/**
+	 * @return Every candidate, best first
+	 */
+	public List<Candidate> getCandidates() {
+		return candidates;
+	}
+
+	/**
+	 * @return The best candidate
+	 */
+	public Candidate getBest() {
+		return candidates.get(0);
+	}
+
+	/**
+	 * @return The total number of games played
+	 */
+	public long getGames() {
+		long games = 0;
+		for (Candidate candidate : candidates)
+			games += candidate.getPlayed();
+		return games;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder(String.format("%d candidates, %d games", candidates.size(), getGames()));
+		for (Candidate candidate : candidates)
+			out.append(System.lineSeparator()).append(candidate);
+		return out.toString();
+	}
+}
@@ -1,10 +1,19 @@
 package org.virajshah.monopoly;
 
-import org.virajshah.monopoly.core.MonopolyGame;
+import org.virajshah.monopoly.analysis.ConfidenceInterval;
+import org.virajshah.monopoly.analysis.ConvergenceTargets;
+import org.virajshah.monopoly.analysis.GameStatistics;
+import org.virajshah.monopoly.tiles.Tile;
 
 /**
  * The Simulator to test a tiles profitability
- * 
+ *
+ * Usage: TileProfitabilitySimulator [returnHalfWidth winRateHalfWidth
+ * turnsHalfWidth [maxGames]]. With no arguments, a fixed number of trials is
+ * played; with targets, games are played until the 95% confidence interval of
+ * every tile's return (rent per game over price), every seat's win rate and
+ * the mean game length is narrower than its target.
+ *
  * @author Viraj Shah
  */
 class TileProfitabilitySimulator {
@@ -13,14 +22,53 @@ class TileProfitabilitySimulator {
 	 */
 	private static final int TRIALS = 20; // minimum value is 20
 
+	/**
+	 * The most games played by an adaptive run unless told otherwise
+	 */
+	private static final long MAX_ADAPTIVE_GAMES = 1_000_000;
+
+	/**
+	 * The number of seats in a simulated game
+	 */
+	private static final int SEATS = 4;
+
 	public static void main(String[] args) {
-		MonopolyGame game = new MonopolyGame();
-		for (int i = 0; i < TRIALS; i++) {
-			while (game.isRunning()) {
-				game.nextPlayer();
-				game.playTurn();
-			}
-			game = new MonopolyGame();
+		BatchSimulator simulator = new BatchSimulator();
+		BatchResult result;
+
+		if (args.length >= 3) {
+			ConvergenceTargets targets = new ConvergenceTargets(Double.parseDouble(args[0]),
+					Double.parseDouble(args[1]), Double.parseDouble(args[2]));
+			long maxGames = args.length >= 4 ? Long.parseLong(args[3]) : MAX_ADAPTIVE_GAMES;
+			long batch = Math.max(TRIALS,
+					(long) Runtime.getRuntime().availableProcessors() * BatchSimulator.DEFAULT_GRAIN);
+
+			result = simulator.runUntil(targets, batch, maxGames);
+			System.out.println(String.format("Stopped after %d games; widest interval is %.2fx its target",
+					result.getGames(), targets.getWorstRatio(result.getStatistics())));
+		} else {
+			result = simulator.run(TRIALS);
 		}
+
+		GameStatistics statistics = result.getStatistics();
+		Tile[] board = Tile.buildBoard(null);
+
+		System.out.println(result);
+		System.out.println(String.format("%2s %-24s %8s %12s %18s", "#", "Tile", "Landed", "Rent/game", "Return/game"));
+		for (int i = 0; i < board.length; i++)
+			System.out.println(String.format("%2d %-24s %7.3f%% %12.1f %10.4f +/- %.4f", i, board[i].getName(),
+					statistics.getLandingShare(i) * 100, (double) statistics.getRent(i) / statistics.getGames(),
+					statistics.getTileReturns(i).getMean(),
+					statistics.getTileReturns(i).getCount() > 0
+							? statistics.getTileReturns(i).getHalfWidth(ConfidenceInterval.Z_95)
+							: 0));
+
+		System.out.println(String.format("%d games finished in %.1f turns (sd %.1f, longest %d)",
+				statistics.getFinishedGames(), statistics.getMeanTurnsToFinish(),
+				statistics.getTurnsToFinishDeviation(), statistics.getLongestFinish()));
+		System.out.println(String.format("Games lasted %s turns", statistics.getGameLengths()));
+		for (int seat = 0; seat < SEATS; seat++)
+			System.out.println(String.format("Seat %d won %d games (%s), went bankrupt first in %d", seat,
+					statistics.getWins(seat), statistics.getSeatWins(seat), statistics.getBankruptcies(seat, 0)));
 	}
 }
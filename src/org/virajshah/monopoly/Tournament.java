@@ -0,0 +1,313 @@
+package org.virajshah.monopoly;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.virajshah.monopoly.core.MonopolyGame;
+import org.virajshah.monopoly.core.Strategy;
+import org.virajshah.monopoly.logs.Logger;
+
+/**
+ * Plays strategies against each other across every core of the machine. Every
+ * round plays each lineup once, where the lineups seat the strategies in every
+ * distinct order: with up to four strategies, all of them sit at every table
+ * (taking more than one seat if there are fewer than four, with the extra seats
+ * passed round so that every strategy takes as many seats as every other); with
+ * more, every group of four meets in every order. All lineups of a round play
+ * from the same random stream, so the dice favour no seat and no strategy
+ * within a round.
+ *
+ * Games are split between workers the same way as in BatchSimulator, and the
+ * results do not depend on the number of threads.
+ *
+ * @author Viraj Shah
+ */
+public class Tournament {
+	/**
+	 * The number of seats at a table
+	 */
+	public static final int SEATS = 4;
+
+	/**
+	 * The strategies playing in the tournament
+	 */
+	private final List<Strategy> strategies;
+
+	/**
+	 * The strategy (as an index into strategies) in each seat, of every lineup
+	 */
+	private final int[][] lineups;
+
+	/**
+	 * The pool which plays the games
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * The number of games played by a single task without splitting it further
+	 */
+	private final int grain;
+
+	/**
+	 * The seed from which the random stream of every round is derived
+	 */
+	private final long masterSeed;
+
+	/**
+	 * Constructs a tournament which uses the common fork-join pool and a random
+	 * master seed
+	 *
+	 * @param strategies The strategies playing in the tournament (at least two)
+	 */
+	public Tournament(List<Strategy> strategies) {
+		this(strategies, new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Constructs a reproducible tournament which uses the common fork-join pool
+	 *
+	 * @param strategies The strategies playing in the tournament (at least two)
+	 * @param masterSeed The seed from which the random stream of every round is
+	 *                   derived
+	 */
+	public Tournament(List<Strategy> strategies, long masterSeed) {
+		this(strategies, ForkJoinPool.commonPool(), BatchSimulator.DEFAULT_GRAIN, masterSeed);
+	}
+
+	/**
+	 * Constructs a tournament
+	 *
+	 * @param strategies The strategies playing in the tournament (at least two)
+	 * @param pool       The pool which plays the games
+	 * @param grain      The number of games played by a single task without
+	 *                   splitting it further
+	 * @param masterSeed The seed from which the random stream of every round is
+	 *                   derived
+	 */
+	public Tournament(List<Strategy> strategies, ForkJoinPool pool, int grain, long masterSeed) {
+		if (strategies.size() < 2)
+			throw new IllegalArgumentException("A tournament needs at least two strategies: " + strategies.size());
+		if (grain < 1)
+			throw new IllegalArgumentException("Grain must be at least 1: " + grain);
+
+		this.strategies = List.copyOf(strategies);
+		this.pool = pool;
+		this.grain = grain;
+		this.masterSeed = masterSeed;
+		lineups = buildLineups(strategies.size());
+		checkBalanced(lineups, strategies.size());
+	}
+
+	/**
+	 * Lists every lineup of a tournament
+	 *
+	 * @param count The number of strategies
+	 * @return The strategy in each seat, of every lineup
+	 */
+	private static int[][] buildLineups(int count) {
+		List<int[]> tables = new ArrayList<>();
+
+		if (count <= SEATS) {
+			// When the seats do not divide evenly, each strategy in turn takes the
+			// extra seats
+			int rotations = SEATS % count == 0 ? 1 : count;
+			for (int rotation = 0; rotation < rotations; rotation++) {
+				int[] table = new int[SEATS];
+				for (int seat = 0; seat < SEATS; seat++)
+					table[seat] = (seat + rotation) % count;
+				Arrays.sort(table);
+				tables.add(table);
+			}
+		} else {
+			// Every group of SEATS strategies, in increasing order
+			int[] table = new int[SEATS];
+			for (int seat = 0; seat < SEATS; seat++)
+				table[seat] = seat;
+			do
+				tables.add(table.clone());
+			while (nextCombination(table, count));
+		}
+
+		List<int[]> lineups = new ArrayList<>();
+		for (int[] table : tables)
+			do
+				lineups.add(table.clone());
+			while (nextPermutation(table));
+
+		return lineups.toArray(new int[0][]);
+	}
+
+	/**
+	 * Checks that every strategy takes the same number of seats over a round, so
+	 * that no strategy gets more chances to win than another
+	 *
+	 * @param lineups The strategy in each seat, of every lineup
+	 * @param count   The number of strategies
+	 */
+	private static void checkBalanced(int[][] lineups, int count) {
+		long[] seats = new long[count];
+		for (int[] lineup : lineups)
+			for (int strategy : lineup)
+				seats[strategy]++;
+
+		for (int strategy = 1; strategy < count; strategy++)
+			if (seats[strategy] != seats[0])
+				throw new IllegalStateException("Unbalanced lineups: " + Arrays.toString(seats));
+	}
+
+	/**
+	 * Advances to the next combination in lexicographic order
+	 *
+	 * @param combination An increasing combination of numbers below n
+	 * @param n           The number of values to choose from
+	 * @return False if this was the last combination
+	 */
+	private static boolean nextCombination(int[] combination, int n) {
+		int k = combination.length;
+		int i = k - 1;
+		while (i >= 0 && combination[i] == n - k + i)
+			i--;
+		if (i < 0)
+			return false;
+
+		combination[i]++;
+		for (int j = i + 1; j < k; j++)
+			combination[j] = combination[j - 1] + 1;
+		return true;
+	}
+
+	/**
+	 * Advances to the next permutation in lexicographic order, skipping repeats
+	 * when values occur more than once
+	 *
+	 * @param permutation The permutation to advance
+	 * @return False if this was the last permutation
+	 */
+	private static boolean nextPermutation(int[] permutation) {
+		int i = permutation.length - 2;
+		while (i >= 0 && permutation[i] >= permutation[i + 1])
+			i--;
+		if (i < 0)
+			return false;
+
+		int j = permutation.length - 1;
+		while (permutation[j] <= permutation[i])
+			j--;
+		swap(permutation, i, j);
+
+		for (int a = i + 1, b = permutation.length - 1; a < b; a++, b--)
+			swap(permutation, a, b);
+		return true;
+	}
+
+	private static void swap(int[] values, int a, int b) {
+		int value = values[a];
+		values[a] = values[b];
+		values[b] = value;
+	}
+
+	/**
+	 * @return The strategies playing in the tournament
+	 */
+	public List<Strategy> getStrategies() {
+		return strategies;
+	}
+
+	/**
+	 * @return The number of games in a round
+	 */
+	public int getLineups() {
+		return lineups.length;
+	}
+
+	/**
+	 * @return The seed from which the random stream of every round is derived
+	 */
+	public long getMasterSeed() {
+		return masterSeed;
+	}
+
+	/**
+	 * Plays a number of rounds and merges their results
+	 *
+	 * @param rounds The number of rounds to play; each round plays every lineup
+	 *               once
+	 * @return The merged results of every game
+	 */
+	public TournamentResult run(long rounds) {
+		return pool.invoke(new TournamentTask(0, rounds * lineups.length));
+	}
+
+	/**
+	 * Plays a single game of the tournament to completion. A game which throws is
+	 * stopped and recorded as failed instead of aborting the whole tournament.
+	 *
+	 * @param index The index of the game within the tournament
+	 * @return The finished game
+	 */
+	MonopolyGame playGame(long index) {
+		int[] lineup = lineups[(int) (index % lineups.length)];
+		MonopolyGame game = new MonopolyGame(masterSeed, index / lineups.length);
+		game.getLogger().setPrintingEnabled(false);
+		game.getLogger().setLevel(Logger.Level.WARN);
+
+		for (int seat = 0; seat < SEATS; seat++)
+			game.getPlayers().get(seat).setStrategy(strategies.get(lineup[seat]));
+
+		try {
+			while (game.isRunning()) {
+				game.nextPlayer();
+				game.playTurn();
+			}
+		} catch (RuntimeException e) {
+			game.getContext().fail(e);
+		}
+
+		return game;
+	}
+
+	/**
+	 * Plays the games with indices in [from, to). The split points only depend on
+	 * the range and the grain, so the results are merged in the same order no
+	 * matter how many threads run the tournament.
+	 */
+	private class TournamentTask extends RecursiveTask<TournamentResult> {
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The index of the first game (inclusive)
+		 */
+		private final long from;
+
+		/**
+		 * The index of the last game (exclusive)
+		 */
+		private final long to;
+
+		TournamentTask(long from, long to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected TournamentResult compute() {
+			if (to - from <= grain) {
+				TournamentResult result = new TournamentResult(strategies);
+				for (long i = from; i < to; i++)
+					result.record(playGame(i), lineups[(int) (i % lineups.length)]);
+				return result;
+			}
+
+			long mid = (from + to) >>> 1;
+			TournamentTask left = new TournamentTask(from, mid);
+			TournamentTask right = new TournamentTask(mid, to);
+			right.fork();
+			TournamentResult result = left.compute();
+			return result.merge(right.join());
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package org.virajshah.monopoly;
+
+import java.util.List;
+
+import org.virajshah.monopoly.analysis.ConfidenceInterval;
+import org.virajshah.monopoly.core.GameState;
+import org.virajshah.monopoly.core.MonopolyGame;
+import org.virajshah.monopoly.core.Strategy;
+
+/**
+ * The merged outcome of a tournament. Every seat of every game is a trial for
+ * the strategy in it, which is won if the seat is the last one left, so a
+ * strategy in two seats of a game plays two trials and wins at most one; games
+ * stopped by the turn limit are won by nobody. A strategy no better than its
+ * opponents wins about one seat in four.
+ *
+ * @author Viraj Shah
+ */
+public class TournamentResult {
+	/**
+	 * The strategies playing in the tournament
+	 */
+	private final List<Strategy> strategies;
+
+	/**
+	 * The number of seats each strategy took, over every game
+	 */
+	private final long[] seatGames;
+
+	/**
+	 * The number of seats of each strategy which won their game
+	 */
+	private final long[] wins;
+
+	/**
+	 * The number of games played
+	 */
+	private long games;
+
+	/**
+	 * The number of games which ended without a winner
+	 */
+	private long draws;
+
+	/**
+	 * The number of games which were stopped by an exception
+	 */
+	private long failedGames;
+
+	/**
+	 * Constructs an empty result
+	 *
+	 * @param strategies The strategies playing in the tournament
+	 */
+	TournamentResult(List<Strategy> strategies) {
+		this.strategies = strategies;
+		seatGames = new long[strategies.size()];
+		wins = new long[strategies.size()];
+	}
+
+	/**
+	 * Records a single finished game
+	 *
+	 * @param game   The game to record
+	 * @param lineup The strategy (as an index) in each seat of the game
+	 */
+	void record(MonopolyGame game, int[] lineup) {
+		games++;
+
+		for (int strategy : lineup)
+			seatGames[strategy]++;
+
+		int winner = game.getWinnerSeat();
+		if (winner != GameState.NO_OWNER)
+			wins[lineup[winner]]++;
+		else
+			draws++;
+
+		if (game.getContext().getFailure() != null)
+			failedGames++;
+	}
+
+	/**
+	 * Adds another result into this one
+	 *
+	 * @param other The result to merge into this one
+	 * @return This result
+	 */
+	TournamentResult merge(TournamentResult other) {
+		for (int i = 0; i < seatGames.length; i++) {
+			seatGames[i] += other.seatGames[i];
+			wins[i] += other.wins[i];
+		}
+		games += other.games;
+		draws += other.draws;
+		failedGames += other.failedGames;
+		return this;
+	}
+
+	/**
+	 * @return The strategies playing in the tournament
+	 */
+	public List<Strategy> getStrategies() {
+		return strategies;
+	}
+
+	/**
+	 * @return The number of games played
+	 */
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 * @return The number of games which ended without a winner
+	 */
+	public long getDraws() {
+		return draws;
+	}
+
+	/**
+	 * @return The number of games which were stopped by an exception
+	 */
+	public long getFailedGames() {
+		return failedGames;
+	}
+
+	/**
+	 * @param strategy The index of a strategy
+	 * @return The number of seats the strategy took, over every game (a game with
+	 *         the strategy in two seats counts twice)
+	 */
+	public long getSeatGames(int strategy) {
+		return seatGames[strategy];
+	}
+
+	/**
+	 * @param strategy The index of a strategy
+	 * @return The number of games won by a seat of the strategy
+	 */
+	public long getWins(int strategy) {
+		return wins[strategy];
+	}
+
+	/**
+	 * @param strategy The index of a strategy
+	 * @param z        The z-score of the confidence level (such as
+	 *                 ConfidenceInterval.Z_95)
+	 * @return The share of its seats which won, with its Wilson score interval
+	 */
+	public ConfidenceInterval getWinRate(int strategy, double z) {
+		return ConfidenceInterval.wilson(wins[strategy], seatGames[strategy], z);
+	}
+
+	/**
+	 * @param strategy The index of a strategy
+	 * @return The share of its seats which won, with its 95% Wilson score interval
+	 */
+	public ConfidenceInterval getWinRate(int strategy) {
+		return getWinRate(strategy, ConfidenceInterval.Z_95);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder(String.format("%d games, %d without a winner, %d failed", games,
+				draws, failedGames));
+		for (int i = 0; i < strategies.size(); i++)
+			out.append(String.format("%n%-24s %8d seats %8d won  %s", strategies.get(i).getName(), seatGames[i],
+					wins[i], getWinRate(i)));
+		return out.toString();
+	}
+}
@@ -0,0 +1,98 @@
+package org.virajshah.monopoly.analysis;
+
+/**
+ * An estimate together with the interval which holds the true value at a
+ * given confidence level
+ *
+ * @author Viraj Shah
+ */
+public final class ConfidenceInterval {
+	/**
+	 * The z-score of a 95% two-sided interval
+	 */
+	public static final double Z_95 = 1.959963984540054;
+
+	/**
+	 * The estimate
+	 */
+	private final double estimate;
+
+	/**
+	 * The lower bound of the interval
+	 */
+	private final double lower;
+
+	/**
+	 * The upper bound of the interval
+	 */
+	private final double upper;
+
+	/**
+	 * Constructs an interval
+	 *
+	 * @param estimate The estimate
+	 * @param lower    The lower bound of the interval
+	 * @param upper    The upper bound of the interval
+	 */
+	public ConfidenceInterval(double estimate, double lower, double upper) {
+		this.estimate = estimate;
+		this.lower = lower;
+		this.upper = upper;
+	}
+
+	/**
+	 * The Wilson score interval of a proportion, which stays inside [0, 1] and
+	 * behaves well for proportions near 0 or 1 and for few trials
+	 *
+	 * @param successes The number of successes
+	 * @param trials    The number of trials
+	 * @param z         The z-score of the confidence level (such as Z_95)
+	 * @return The interval of the proportion of successes; [0, 1] if there were no
+	 *         trials
+	 */
+	public static ConfidenceInterval wilson(long successes, long trials, double z) {
+		if (trials == 0)
+			return new ConfidenceInterval(0, 0, 1);
+
+		double p = (double) successes / trials;
+		double z2 = z * z;
+		double denominator = 1 + z2 / trials;
+		double centre = (p + z2 / (2 * trials)) / denominator;
+		double margin = z * Math.sqrt(p * (1 - p) / trials + z2 / (4.0 * trials * trials)) / denominator;
+
+		return new ConfidenceInterval(p, Math.max(0, centre - margin), Math.min(1, centre + margin));
+	}
+
+	/**
+	 * @return The estimate
+	 */
+	public double getEstimate() {
+		return estimate;
+	}
+
+	/**
+	 * @return The lower bound of the interval
+	 */
+	public double getLower() {
+		return lower;
+	}
+
+	/**
+	 * @return The upper bound of the interval
+	 */
+	public double getUpper() {
+		return upper;
+	}
+
+	/**
+	 * @return Half the width of the interval
+	 */
+	public double getHalfWidth() {
+		return (upper - lower) / 2;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%.4f [%.4f, %.4f]", estimate, lower, upper);
+	}
+}
@@ -0,0 +1,117 @@
+package org.virajshah.monopoly.analysis;
+
+import java.util.function.Predicate;
+
+import org.virajshah.monopoly.core.GameState;
+
+/**
+ * How precise the estimates of a batch of games must be before the batch can
+ * stop: the largest acceptable half-width of the confidence interval of each
+ * tile's return, each seat's win rate and the mean game length. The targets
+ * are met once every tracked estimate is within its target.
+ *
+ * @author Viraj Shah
+ */
+public class ConvergenceTargets implements Predicate<GameStatistics> {
+	/**
+	 * The least number of games before the targets can be met, so that a metric
+	 * which has not varied yet is not taken as converged
+	 */
+	public static final long MIN_GAMES = 20;
+
+	/**
+	 * The largest acceptable half-width of each tile's return (rent per game over
+	 * price)
+	 */
+	private final double returnHalfWidth;
+
+	/**
+	 * The largest acceptable half-width of each seat's win rate
+	 */
+	private final double winRateHalfWidth;
+
+	/**
+	 * The largest acceptable half-width of the mean number of turns per game
+	 */
+	private final double turnsHalfWidth;
+
+	/**
+	 * The z-score of the confidence level
+	 */
+	private final double z;
+
+	/**
+	 * Constructs targets at the 95% confidence level
+	 *
+	 * @param returnHalfWidth  The largest acceptable half-width of each tile's
+	 *                         return (rent per game over price)
+	 * @param winRateHalfWidth The largest acceptable half-width of each seat's win
+	 *                         rate
+	 * @param turnsHalfWidth   The largest acceptable half-width of the mean number
+	 *                         of turns per game
+	 */
+	public ConvergenceTargets(double returnHalfWidth, double winRateHalfWidth, double turnsHalfWidth) {
+		this(returnHalfWidth, winRateHalfWidth, turnsHalfWidth, ConfidenceInterval.Z_95);
+	}
+
+	/**
+	 * Constructs targets
+	 *
+	 * @param returnHalfWidth  The largest acceptable half-width of each tile's
+	 *                         return (rent per game over price)
+	 * @param winRateHalfWidth The largest acceptable half-width of each seat's win
+	 *                         rate
+	 * @param turnsHalfWidth   The largest acceptable half-width of the mean number
+	 *                         of turns per game
+	 * @param z                The z-score of the confidence level
+	 */
+	public ConvergenceTargets(double returnHalfWidth, double winRateHalfWidth, double turnsHalfWidth, double z) {
+		this.returnHalfWidth = returnHalfWidth;
+		this.winRateHalfWidth = winRateHalfWidth;
+		this.turnsHalfWidth = turnsHalfWidth;
+		this.z = z;
+	}
+
+	/**
+	 * @return The z-score of the confidence level
+	 */
+	public double getZ() {
+		return z;
+	}
+
+	/**
+	 * @param statistics The statistics of the games played so far
+	 * @return True once every tracked estimate is within its target
+	 */
+	@Override
+	public boolean test(GameStatistics statistics) {
+		return statistics.getGames() >= MIN_GAMES && getWorstRatio(statistics) <= 1;
+	}
+
+	/**
+	 * @param statistics The statistics of the games played so far
+	 * @return The largest ratio of an estimate's half-width to its target; the
+	 *         targets are met when this is at most 1
+	 */
+	public double getWorstRatio(GameStatistics statistics) {
+		double worst = statistics.getGameLengths().getHalfWidth(z) / turnsHalfWidth;
+
+		for (int tile = 0; tile < GameState.TILES; tile++) {
+			RunningStatistics returns = statistics.getTileReturns(tile);
+			if (returns.getCount() > 0)
+				worst = Math.max(worst, returns.getHalfWidth(z) / returnHalfWidth);
+		}
+
+		// Win rates use the Wilson interval, which unlike the normal approximation
+		// is not empty for a seat which has won no games or every game
+		for (int seat = 0; seat < GameStatistics.MAX_SEATS; seat++) {
+			if (statistics.getSeatWins(seat).getCount() > 0) {
+				ConfidenceInterval winRate = ConfidenceInterval.wilson(statistics.getWins(seat),
+						statistics.getGames(), z);
+				worst = Math.max(worst, winRate.getHalfWidth() / winRateHalfWidth);
+			}
+		}
+
+		return worst;
+	}
+}
@@ -0,0 +1,424 @@
+package org.virajshah.monopoly.analysis;
+
+import java.util.Arrays;
+
+import org.virajshah.monopoly.core.Card;
+import org.virajshah.monopoly.core.GameObserver;
+import org.virajshah.monopoly.core.GameState;
+import org.virajshah.monopoly.core.MonopolyGame;
+import org.virajshah.monopoly.tiles.OwnableTile;
+import org.virajshah.monopoly.tiles.Tile;
+
+/**
+ * Accumulates statistics over many games: how often each tile is landed on,
+ * how much rent each tile earns at each number of houses, which seat wins,
+ * how long games last and the order in which seats go bankrupt. Every
+ * statistic is a primitive counter fed by game events, so one instance can
+ * follow any number of games played one after another on the same thread, and
+ * instances from different threads are merged once at the end by adding them
+ * up.
+ *
+ * Alongside the totals, a few per-game samples are kept as running means and
+ * variances: the return of each ownable tile (the rent it earned in a game over
+ * its price), whether each seat won, and the length of each game. These give
+ * confidence intervals for the estimates, and show when enough games have
+ * been played. A game which failed (see GameContext.getFailure) is only counted
+ * as failed: it adds no sample and no outcome, although the events of the
+ * turns it played before failing stay in the totals.
+ *
+ * An instance is not thread safe; give each thread its own.
+ *
+ * @author Viraj Shah
+ */
+public class GameStatistics implements GameObserver {
+	/**
+	 * The number of development levels of a tile (0 to 4 houses, or a hotel)
+	 */
+	public static final int LEVELS = 6;
+
+	/**
+	 * The largest number of seats supported
+	 */
+	public static final int MAX_SEATS = 8;
+
+	/**
+	 * The number of times each tile was landed on
+	 */
+	private final long[] landings = new long[GameState.TILES];
+
+	/**
+	 * The rent charged on each tile at each level, at [tile * LEVELS + level]
+	 */
+	private final long[] rent = new long[GameState.TILES * LEVELS];
+
+	/**
+	 * The number of times rent was charged on each tile at each level, at [tile *
+	 * LEVELS + level]
+	 */
+	private final long[] rentEvents = new long[GameState.TILES * LEVELS];
+
+	/**
+	 * The number of games won by each seat
+	 */
+	private final long[] wins = new long[MAX_SEATS];
+
+	/**
+	 * The number of times each seat went bankrupt k-th in its game, at [seat *
+	 * MAX_SEATS + k]
+	 */
+	private final long[] bankruptcyOrder = new long[MAX_SEATS * MAX_SEATS];
+
+	/**
+	 * The number of games recorded
+	 */
+	private long games;
+
+	/**
+	 * The number of games which stopped because they threw an exception
+	 */
+	private long failedGames;
+
+	/**
+	 * The number of games which ended with a single player left
+	 */
+	private long finishedGames;
+
+	/**
+	 * The total and total square of the turns taken by finished games
+	 */
+	private long turnsToFinish;
+	private long turnsToFinishSquared;
+
+	/**
+	 * The number of turns taken by the longest finished game
+	 */
+	private int longestFinish;
+
+	/**
+	 * The rent each tile earned per game over its price (empty for tiles which
+	 * cannot be owned)
+	 */
+	private final RunningStatistics[] tileReturns = new RunningStatistics[GameState.TILES];
+
+	/**
+	 * 1 for each game won by a seat, 0 for each game it did not win
+	 */
+	private final RunningStatistics[] seatWins = new RunningStatistics[MAX_SEATS];
+
+	/**
+	 * The number of turns taken by every game, finished or not
+	 */
+	private final RunningStatistics gameLengths = new RunningStatistics();
+
+	/**
+	 * The rent charged on each tile in the game being observed
+	 */
+	private final long[] gameRent = new long[GameState.TILES];
+
+	/**
+	 * The state of the game being observed
+	 */
+	private GameState state;
+
+	/**
+	 * Bit i is set if seat i has gone bankrupt in the game being observed
+	 */
+	private int bankruptSeats;
+
+	/**
+	 * The seat which just drew a card which may move it, or -1
+	 */
+	private int cardSeat = -1;
+
+	/**
+	 * Constructs empty statistics
+	 */
+	public GameStatistics() {
+		for (int tile = 0; tile < tileReturns.length; tile++)
+			tileReturns[tile] = new RunningStatistics();
+		for (int seat = 0; seat < seatWins.length; seat++)
+			seatWins[seat] = new RunningStatistics();
+	}
+
+	/**
+	 * Starts following a game which has not played a turn yet
+	 *
+	 * @param game The game to follow
+	 */
+	public void observe(MonopolyGame game) {
+		if (game.getState().getSeats() > MAX_SEATS)
+			throw new IllegalArgumentException("Too many seats: " + game.getState().getSeats());
+
+		state = game.getState();
+		state.setObserver(this);
+		bankruptSeats = 0;
+		cardSeat = -1;
+		Arrays.fill(gameRent, 0);
+	}
+
+	/**
+	 * Records the outcome of a game which has finished being played and stops
+	 * following it; a failed game is only counted as failed
+	 *
+	 * @param game The finished game
+	 */
+	public void record(MonopolyGame game) {
+		if (game.getState().getObserver() == this)
+			game.getState().setObserver(null);
+		state = null;
+
+		if (game.getContext().getFailure() != null) {
+			failedGames++;
+			return;
+		}
+
+		games++;
+
+		int winner = game.getWinnerSeat();
+		if (winner != GameState.NO_OWNER) {
+			wins[winner]++;
+			finishedGames++;
+			turnsToFinish += game.getTurnsPlayed();
+			turnsToFinishSquared += (long) game.getTurnsPlayed() * game.getTurnsPlayed();
+			longestFinish = Math.max(longestFinish, game.getTurnsPlayed());
+		}
+
+		for (int tile = 0; tile < GameState.TILES; tile++) {
+			Tile.TileType type = game.tileAt(tile).getType();
+			if (type == Tile.TileType.PROPERTY || type == Tile.TileType.RAILROAD || type == Tile.TileType.UTILITY)
+				tileReturns[tile].add((double) gameRent[tile] / ((OwnableTile) game.tileAt(tile)).getPropertyValue());
+		}
+		for (int seat = 0; seat < game.getState().getSeats(); seat++)
+			seatWins[seat].add(seat == winner ? 1 : 0);
+		gameLengths.add(game.getTurnsPlayed());
+	}
+
+	/**
+	 * Adds another set of statistics into this one
+	 *
+	 * @param other The statistics to merge into this one
+	 * @return These statistics
+	 */
+	public GameStatistics merge(GameStatistics other) {
+		add(landings, other.landings);
+		add(rent, other.rent);
+		add(rentEvents, other.rentEvents);
+		add(wins, other.wins);
+		add(bankruptcyOrder, other.bankruptcyOrder);
+		games += other.games;
+		failedGames += other.failedGames;
+		finishedGames += other.finishedGames;
+		turnsToFinish += other.turnsToFinish;
+		turnsToFinishSquared += other.turnsToFinishSquared;
+		longestFinish = Math.max(longestFinish, other.longestFinish);
+		for (int tile = 0; tile < tileReturns.length; tile++)
+			tileReturns[tile].merge(other.tileReturns[tile]);
+		for (int seat = 0; seat < seatWins.length; seat++)
+			seatWins[seat].merge(other.seatWins[seat]);
+		gameLengths.merge(other.gameLengths);
+		return this;
+	}
+
+	private static void add(long[] into, long[] from) {
+		for (int i = 0; i < into.length; i++)
+			into[i] += from[i];
+	}
+
+	@Override
+	public void onTurnStart(int turn, int seat) {
+		cardSeat = -1;
+	}
+
+	@Override
+	public void onRoll(int seat, int die1, int die2) {
+		// A card which did not move its player must not count the next roll's move
+		cardSeat = -1;
+	}
+
+	@Override
+	public void onMove(int seat, int from, int to) {
+		cardSeat = -1;
+		landings[to]++;
+	}
+
+	@Override
+	public void onCardDrawn(int seat, int tile, Card card) {
+		cardSeat = seat;
+	}
+
+	@Override
+	public void onPositionChanged(int seat, int position) {
+		// The first move after a card is where the card sent the player
+		if (seat == cardSeat) {
+			cardSeat = -1;
+			landings[position]++;
+		}
+	}
+
+	@Override
+	public void onRent(int payer, int owner, int tile, int amount) {
+		int level = state != null ? state.getHouses(tile) : 0;
+		rent[tile * LEVELS + level] += amount;
+		rentEvents[tile * LEVELS + level]++;
+		gameRent[tile] += amount;
+	}
+
+	@Override
+	public void onBankruptcy(int seat) {
+		if ((bankruptSeats & (1 << seat)) == 0) {
+			bankruptcyOrder[seat * MAX_SEATS + Integer.bitCount(bankruptSeats)]++;
+			bankruptSeats |= 1 << seat;
+		}
+	}
+
+	/**
+	 * @return The number of games recorded, not counting failed games
+	 */
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 * @return The number of games which stopped because they threw an exception
+	 */
+	public long getFailedGames() {
+		return failedGames;
+	}
+
+	/**
+	 * @param tile The tile index
+	 * @return The number of times the tile was landed on, by a roll of the dice
+	 *         or by a card
+	 */
+	public long getLandings(int tile) {
+		return landings[tile];
+	}
+
+	/**
+	 * @param tile The tile index
+	 * @return The share of all landings which were on the tile
+	 */
+	public double getLandingShare(int tile) {
+		long total = 0;
+		for (long count : landings)
+			total += count;
+		return total != 0 ? (double) landings[tile] / total : 0;
+	}
+
+	/**
+	 * @param tile  The tile index
+	 * @param level The number of houses on the tile (5 = hotel)
+	 * @return The total rent charged on the tile at that level
+	 */
+	public long getRent(int tile, int level) {
+		return rent[tile * LEVELS + level];
+	}
+
+	/**
+	 * @param tile The tile index
+	 * @return The total rent charged on the tile at every level
+	 */
+	public long getRent(int tile) {
+		long total = 0;
+		for (int level = 0; level < LEVELS; level++)
+			total += rent[tile * LEVELS + level];
+		return total;
+	}
+
+	/**
+	 * @param tile The tile index
+	 * @return The rent charged on the tile during the game being followed, or the
+	 *         last game recorded
+	 */
+	public long getGameRent(int tile) {
+		return gameRent[tile];
+	}
+
+	/**
+	 * @param tile  The tile index
+	 * @param level The number of houses on the tile (5 = hotel)
+	 * @return The number of times rent was charged on the tile at that level
+	 */
+	public long getRentEvents(int tile, int level) {
+		return rentEvents[tile * LEVELS + level];
+	}
+
+	/**
+	 * @param seat The seat number
+	 * @return The number of games won by the seat
+	 */
+	public long getWins(int seat) {
+		return wins[seat];
+	}
+
+	/**
+	 * @param seat  The seat number
+	 * @param order 0 for the first seat to go bankrupt in a game, 1 for the
+	 *              second and so on
+	 * @return The number of games in which the seat went bankrupt in that order
+	 */
+	public long getBankruptcies(int seat, int order) {
+		return bankruptcyOrder[seat * MAX_SEATS + order];
+	}
+
+	/**
+	 * @return The number of games which ended with a single player left
+	 */
+	public long getFinishedGames() {
+		return finishedGames;
+	}
+
+	/**
+	 * @return The mean number of turns taken by games which ended with a single
+	 *         player left
+	 */
+	public double getMeanTurnsToFinish() {
+		return finishedGames != 0 ? (double) turnsToFinish / finishedGames : 0;
+	}
+
+	/**
+	 * @return The standard deviation of the number of turns taken by games which
+	 *         ended with a single player left
+	 */
+	public double getTurnsToFinishDeviation() {
+		if (finishedGames < 2)
+			return 0;
+		double mean = getMeanTurnsToFinish();
+		double variance = (turnsToFinishSquared - finishedGames * mean * mean) / (finishedGames - 1);
+		return Math.sqrt(Math.max(variance, 0));
+	}
+
+	/**
+	 * @return The number of turns taken by the longest game which ended with a
+	 *         single player left
+	 */
+	public int getLongestFinish() {
+		return longestFinish;
+	}
+
+	/**
+	 * @param tile The tile index
+	 * @return The running statistics of the rent the tile earned per game over
+	 *         its price; empty for tiles which cannot be owned
+	 */
+	public RunningStatistics getTileReturns(int tile) {
+		return tileReturns[tile];
+	}
+
+	/**
+	 * @param seat The seat number
+	 * @return The running statistics of whether the seat won each game (1) or not
+	 *         (0); the mean is the seat's win rate
+	 */
+	public RunningStatistics getSeatWins(int seat) {
+		return seatWins[seat];
+	}
+
+	/**
+	 * @return The running statistics of the number of turns taken by every game,
+	 *         finished or not
+	 */
+	public RunningStatistics getGameLengths() {
+		return gameLengths;
+	}
+}
@@ -0,0 +1,379 @@
+package org.virajshah.monopoly.analysis;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+import org.virajshah.monopoly.core.Card;
+import org.virajshah.monopoly.core.GameState;
+import org.virajshah.monopoly.tiles.Tile;
+
+/**
+ * Computes exact tile landing probabilities by treating a single token's walk
+ * around the board as a Markov chain, instead of estimating them by playing
+ * whole games. The chain has one state per tile plus one state for each turn
+ * spent in jail, and its transition matrix is built from the 36 dice outcomes,
+ * the movement effects of every Chance and Community Chest card, and the Go To
+ * Jail tile. One step of the chain is one roll of the dice.
+ *
+ * Cards are modelled as being drawn uniformly at random, which is the long-run
+ * behaviour of the shuffled decks.
+ *
+ * @author Viraj Shah
+ */
+public class MarkovLandingEngine {
+	/**
+	 * The number of turns a player can fail to roll doubles before being let out
+	 * of jail (see Player.checkJailStatus)
+	 */
+	private static final int JAIL_TURNS = 4;
+
+	/**
+	 * The index of the jail tile
+	 */
+	private static final int JAIL_TILE = 10;
+
+	/**
+	 * The chain state of a player who has just been sent to jail; the state
+	 * JAILED + k is a player who has failed to leave jail k times
+	 */
+	private static final int JAILED = GameState.TILES;
+
+	/**
+	 * The number of states in the chain
+	 */
+	private static final int STATES = GameState.TILES + JAIL_TURNS;
+
+	/**
+	 * The largest change between two iterations at which the stationary
+	 * distribution is considered converged
+	 */
+	private static final double TOLERANCE = 1e-13;
+
+	/**
+	 * The maximum number of power iterations for the stationary distribution
+	 */
+	private static final int MAX_ITERATIONS = 100000;
+
+	/**
+	 * Identifies the format of cached tables
+	 */
+	private static final int CACHE_MAGIC = 0x4d4b5631; // "MKV1"
+
+	/**
+	 * The probability of moving from state i to state j is at [i * STATES + j]
+	 */
+	private final double[] transitions;
+
+	/**
+	 * The long-run probability of being in each state
+	 */
+	private final double[] stationary;
+
+	/**
+	 * The probability of being in each state after n rolls from GO, at [n]
+	 */
+	private final double[][] transients;
+
+	/**
+	 * A hash of everything the transition matrix depends on
+	 */
+	private final String rulesetKey;
+
+	/**
+	 * Builds the chain and computes its distributions
+	 *
+	 * @param turns The number of rolls to compute transient distributions for
+	 */
+	public MarkovLandingEngine(int turns) {
+		Tile[] board = Tile.buildBoard(null);
+		List<Card> chance = Card.getChanceDeck();
+		List<Card> communityChest = Card.getCommunityChestDeck();
+
+		rulesetKey = rulesetKey(board, chance, communityChest);
+		transitions = buildTransitions(board, chance, communityChest);
+		stationary = computeStationary(transitions);
+		transients = computeTransient(transitions, turns);
+	}
+
+	/**
+	 * Restores cached distributions
+	 */
+	private MarkovLandingEngine(String rulesetKey, double[] stationary, double[][] transients) {
+		this.rulesetKey = rulesetKey;
+		this.transitions = buildTransitions(Tile.buildBoard(null), Card.getChanceDeck(),
+				Card.getCommunityChestDeck());
+		this.stationary = stationary;
+		this.transients = transients;
+	}
+
+	/**
+	 * Loads the distributions from the cache directory, computing and caching them
+	 * if they have not been cached for the current ruleset yet
+	 *
+	 * @param cacheDirectory The directory holding cached tables
+	 * @param turns          The number of rolls to compute transient distributions
+	 *                       for
+	 * @return The engine
+	 */
+	public static MarkovLandingEngine load(Path cacheDirectory, int turns) {
+		String key = rulesetKey(Tile.buildBoard(null), Card.getChanceDeck(), Card.getCommunityChestDeck());
+		Path file = cacheDirectory.resolve("markov-" + key + "-" + turns + ".bin");
+
+		if (Files.isReadable(file)) {
+			try (InputStream in = Files.newInputStream(file)) {
+				return read(new DataInputStream(in), key, turns);
+			} catch (IOException e) {
+				// Unreadable cache entry; fall through and rebuild it
+			}
+		}
+
+		MarkovLandingEngine engine = new MarkovLandingEngine(turns);
+		try {
+			Files.createDirectories(cacheDirectory);
+			Path tmp = Files.createTempFile(cacheDirectory, "markov-", ".tmp");
+			try (OutputStream out = Files.newOutputStream(tmp)) {
+				engine.write(new DataOutputStream(out));
+			}
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			// The cache is only an optimization; the engine is still usable
+		}
+		return engine;
+	}
+
+	/**
+	 * Hashes everything the transition matrix depends on: the tile types, the
+	 * card calls and the jail rule
+	 */
+	private static String rulesetKey(Tile[] board, List<Card> chance, List<Card> communityChest) {
+		StringBuilder ruleset = new StringBuilder();
+		for (Tile tile : board)
+			ruleset.append(tile.getType()).append(',');
+		ruleset.append('|');
+		for (Card card : chance)
+			ruleset.append(card.getCall()).append('|');
+		ruleset.append('|');
+		for (Card card : communityChest)
+			ruleset.append(card.getCall()).append('|');
+		ruleset.append("jail=").append(JAIL_TURNS);
+
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256")
+					.digest(ruleset.toString().getBytes(StandardCharsets.UTF_8));
+			StringBuilder hex = new StringBuilder();
+			for (int i = 0; i < 8; i++)
+				hex.append(String.format("%02x", digest[i]));
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	/**
+	 * Builds the transition matrix of the chain
+	 */
+	private static double[] buildTransitions(Tile[] board, List<Card> chance, List<Card> communityChest) {
+		double[] matrix = new double[STATES * STATES];
+
+		for (int from = 0; from < STATES; from++) {
+			for (int die1 = 1; die1 <= 6; die1++) {
+				for (int die2 = 1; die2 <= 6; die2++) {
+					double p = 1.0 / 36;
+					int total = die1 + die2;
+
+					if (from < JAILED) {
+						land(matrix, from, (from + total) % GameState.TILES, p, board, chance, communityChest);
+					} else if (die1 == die2 || from - JAILED + 1 == JAIL_TURNS) {
+						// Rolled doubles or served the sentence
+						land(matrix, from, (JAIL_TILE + total) % GameState.TILES, p, board, chance, communityChest);
+					} else {
+						matrix[from * STATES + from + 1] += p;
+					}
+				}
+			}
+		}
+
+		return matrix;
+	}
+
+	/**
+	 * Adds the transitions of a token landing on a tile, following Go To Jail and
+	 * any card drawn there
+	 */
+	private static void land(double[] matrix, int from, int tile, double p, Tile[] board, List<Card> chance,
+			List<Card> communityChest) {
+		Tile.TileType type = board[tile].getType();
+		List<Card> deck = type == Tile.TileType.CHANCE ? chance
+				: type == Tile.TileType.COMMUNITY_CHEST ? communityChest : null;
+
+		if (type == Tile.TileType.GO_TO_JAIL) {
+			matrix[from * STATES + JAILED] += p;
+		} else if (deck != null) {
+			for (Card card : deck) {
+				int destination = card.destination(tile);
+				int to = destination == Card.JAIL ? JAILED : Math.floorMod(destination, GameState.TILES);
+				matrix[from * STATES + to] += p / deck.size();
+			}
+		} else {
+			matrix[from * STATES + tile] += p;
+		}
+	}
+
+	/**
+	 * Advances a distribution by one roll
+	 */
+	private static double[] step(double[] matrix, double[] distribution) {
+		double[] next = new double[STATES];
+		for (int i = 0; i < STATES; i++) {
+			double p = distribution[i];
+			if (p != 0)
+				for (int j = 0; j < STATES; j++)
+					next[j] += p * matrix[i * STATES + j];
+		}
+		return next;
+	}
+
+	/**
+	 * Finds the stationary distribution by power iteration
+	 */
+	private static double[] computeStationary(double[] matrix) {
+		double[] distribution = new double[STATES];
+		distribution[0] = 1;
+
+		for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+			double[] next = step(matrix, distribution);
+			double change = 0;
+			for (int i = 0; i < STATES; i++)
+				change += Math.abs(next[i] - distribution[i]);
+			distribution = next;
+
+			if (change < TOLERANCE)
+				break;
+		}
+
+		return distribution;
+	}
+
+	/**
+	 * Finds the distribution after each of the first few rolls from GO
+	 */
+	private static double[][] computeTransient(double[] matrix, int turns) {
+		double[][] distributions = new double[turns + 1][];
+		distributions[0] = new double[STATES];
+		distributions[0][0] = 1;
+
+		for (int n = 1; n <= turns; n++)
+			distributions[n] = step(matrix, distributions[n - 1]);
+
+		return distributions;
+	}
+
+	/**
+	 * Folds the jail states of a chain distribution onto the jail tile
+	 */
+	private static double[] byTile(double[] distribution) {
+		double[] tiles = new double[GameState.TILES];
+		System.arraycopy(distribution, 0, tiles, 0, GameState.TILES);
+		for (int k = 0; k < JAIL_TURNS; k++)
+			tiles[JAIL_TILE] += distribution[JAILED + k];
+		return tiles;
+	}
+
+	/**
+	 * @return The long-run probability of a token ending a roll on each tile
+	 *         (players in jail count as being on the jail tile)
+	 */
+	public double[] getStationaryDistribution() {
+		return byTile(stationary);
+	}
+
+	/**
+	 * @return The long-run probability of a token being in jail (rather than just
+	 *         visiting)
+	 */
+	public double getJailProbability() {
+		double p = 0;
+		for (int k = 0; k < JAIL_TURNS; k++)
+			p += stationary[JAILED + k];
+		return p;
+	}
+
+	/**
+	 * @param turn The number of rolls since starting on GO
+	 * @return The probability of a token being on each tile after that many rolls
+	 */
+	public double[] getDistributionAfter(int turn) {
+		return byTile(transients[turn]);
+	}
+
+	/**
+	 * @return The number of rolls which transient distributions were computed for
+	 */
+	public int getTurns() {
+		return transients.length - 1;
+	}
+
+	/**
+	 * @return A hash of the board and cards which the distributions were computed
+	 *         from
+	 */
+	public String getRulesetKey() {
+		return rulesetKey;
+	}
+
+	/**
+	 * @param from The state moved from
+	 * @param to   The state moved to
+	 * @return The probability of moving between the two chain states in one roll;
+	 *         states 40 and up are turns spent in jail
+	 */
+	public double getTransitionProbability(int from, int to) {
+		return transitions[from * STATES + to];
+	}
+
+	/**
+	 * Writes the distributions to a cache file
+	 */
+	private void write(DataOutputStream out) throws IOException {
+		out.writeInt(CACHE_MAGIC);
+		out.writeUTF(rulesetKey);
+		out.writeInt(STATES);
+		out.writeInt(transients.length);
+		for (double p : stationary)
+			out.writeDouble(p);
+		for (double[] distribution : transients)
+			for (double p : distribution)
+				out.writeDouble(p);
+		out.flush();
+	}
+
+	/**
+	 * Reads distributions written by write(DataOutputStream)
+	 */
+	private static MarkovLandingEngine read(DataInputStream in, String key, int turns) throws IOException {
+		if (in.readInt() != CACHE_MAGIC || !in.readUTF().equals(key) || in.readInt() != STATES
+				|| in.readInt() != turns + 1)
+			throw new IOException("Cached tables do not match the current ruleset");
+
+		double[] stationary = new double[STATES];
+		for (int i = 0; i < STATES; i++)
+			stationary[i] = in.readDouble();
+
+		double[][] transients = new double[turns + 1][STATES];
+		for (double[] distribution : transients)
+			for (int i = 0; i < STATES; i++)
+				distribution[i] = in.readDouble();
+
+		return new MarkovLandingEngine(key, stationary, transients);
+	}
+}
@@ -0,0 +1,119 @@
+package org.virajshah.monopoly.analysis;
+
+/**
+ * The mean and variance of a stream of samples, updated one sample at a time
+ * with Welford's algorithm so that no samples are kept and the variance stays
+ * accurate over millions of samples. Two instances can be merged, which gives
+ * the statistics of both streams together.
+ *
+ * An instance is not thread safe.
+ *
+ * @author Viraj Shah
+ */
+public class RunningStatistics {
+	/**
+	 * The number of samples
+	 */
+	private long count;
+
+	/**
+	 * The mean of the samples
+	 */
+	private double mean;
+
+	/**
+	 * The sum of the squared differences between each sample and the mean
+	 */
+	private double squaredDeviations;
+
+	/**
+	 * Adds a sample
+	 *
+	 * @param sample The sample
+	 */
+	public void add(double sample) {
+		count++;
+		double delta = sample - mean;
+		mean += delta / count;
+		squaredDeviations += delta * (sample - mean);
+	}
+
+	/**
+	 * Adds the samples of another stream into this one
+	 *
+	 * @param other The statistics to merge into this one
+	 * @return These statistics
+	 */
+	public RunningStatistics merge(RunningStatistics other) {
+		if (other.count == 0)
+			return this;
+
+		long total = count + other.count;
+		double delta = other.mean - mean;
+		mean += delta * other.count / total;
+		squaredDeviations += other.squaredDeviations + delta * delta * ((double) count * other.count / total);
+		count = total;
+		return this;
+	}
+
+	/**
+	 * @return The number of samples
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return The mean of the samples; 0 if there are none
+	 */
+	public double getMean() {
+		return mean;
+	}
+
+	/**
+	 * @return The sample variance; 0 if there are fewer than two samples
+	 */
+	public double getVariance() {
+		return count > 1 ? squaredDeviations / (count - 1) : 0;
+	}
+
+	/**
+	 * @return The sample standard deviation
+	 */
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+
+	/**
+	 * @return The standard error of the mean; infinite if there are fewer than
+	 *         two samples
+	 */
+	public double getStandardError() {
+		return count > 1 ? Math.sqrt(getVariance() / count) : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * @param z The z-score of the confidence level (such as
+	 *          ConfidenceInterval.Z_95)
+	 * @return Half the width of the normal confidence interval of the mean;
+	 *         infinite if there are fewer than two samples
+	 */
+	public double getHalfWidth(double z) {
+		return z * getStandardError();
+	}
+
+	/**
+	 * @param z The z-score of the confidence level (such as
+	 *          ConfidenceInterval.Z_95)
+	 * @return The normal confidence interval of the mean
+	 */
+	public ConfidenceInterval getInterval(double z) {
+		double halfWidth = getHalfWidth(z);
+		return new ConfidenceInterval(mean, mean - halfWidth, mean + halfWidth);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%.4f +/- %.4f (n=%d)", mean, getHalfWidth(ConfidenceInterval.Z_95), count);
+	}
+}
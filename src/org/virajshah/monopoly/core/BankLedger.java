@@ -0,0 +1,163 @@
+package org.virajshah.monopoly.core;
+
+/**
+ * Keeps the books of a single game: how much money is held by players still
+ * in the game, and how much sits in the Free Parking pool. Every change to a
+ * player's balance goes through the ledger, which updates the totals as it
+ * goes, so checking the money supply cap never needs to add up every player's
+ * balance.
+ *
+ * @author Viraj Shah
+ */
+public class BankLedger {
+	/**
+	 * The total amount of money in a Monopoly set; players can never hold more
+	 * than this between them
+	 */
+	public static final int MONEY_SUPPLY = 20580;
+
+	/**
+	 * The state holding the balances
+	 */
+	private final GameState state;
+
+	/**
+	 * The total balance of every seat which still counts towards circulation
+	 */
+	private int circulation;
+
+	/**
+	 * The amount of money in the Free Parking pool
+	 */
+	private int freeParkingPool;
+
+	/**
+	 * Constructs the ledger of a new game
+	 *
+	 * @param state The state holding the balances
+	 */
+	BankLedger(GameState state) {
+		this.state = state;
+		for (int seat = 0; seat < state.getSeats(); seat++)
+			circulation += state.getBalance(seat);
+		freeParkingPool = 0;
+	}
+
+	/**
+	 * Copies the books of a game, for a copy of its state
+	 *
+	 * @param state  The copied state holding the balances
+	 * @param source The ledger to copy
+	 */
+	BankLedger(GameState state, BankLedger source) {
+		this.state = state;
+		circulation = source.circulation;
+		freeParkingPool = source.freeParkingPool;
+	}
+
+	/**
+	 * Pays money from the bank to a seat, without letting the money held by
+	 * players exceed the money supply. Bankrupt seats are not paid.
+	 *
+	 * @param seat   The seat to pay
+	 * @param amount The amount requested
+	 * @return The amount actually paid
+	 */
+	public int credit(int seat, int amount) {
+		if (!state.isActive(seat))
+			return 0;
+
+		int paid = Math.min(amount, MONEY_SUPPLY - circulation);
+
+		state.setBalance(seat, state.getBalance(seat) + paid);
+		circulation += paid;
+
+		return paid;
+	}
+
+	/**
+	 * Takes money from a seat. The caller is responsible for checking that the
+	 * seat can afford it.
+	 *
+	 * @param seat   The seat to take money from
+	 * @param amount The amount to take
+	 */
+	public void debit(int seat, int amount) {
+		state.setBalance(seat, state.getBalance(seat) - amount);
+		if (state.isActive(seat))
+			circulation -= amount;
+	}
+
+	/**
+	 * Marks a seat as bankrupt: it leaves the game, its balance becomes -1 and no
+	 * longer counts towards circulation
+	 *
+	 * @param seat The bankrupt seat
+	 */
+	public void bankrupt(int seat) {
+		if (state.isActive(seat)) {
+			circulation -= state.getBalance(seat);
+			state.deactivate(seat);
+		}
+		state.setBalance(seat, -1);
+	}
+
+	/**
+	 * Adds money to the Free Parking pool
+	 *
+	 * @param amount The amount to add
+	 */
+	public void addToPool(int amount) {
+		freeParkingPool += amount;
+		if (state.getObserver() != null)
+			state.getObserver().onFreeParkingPoolChanged(freeParkingPool);
+	}
+
+	/**
+	 * Empties the Free Parking pool
+	 */
+	public void clearPool() {
+		freeParkingPool = 0;
+		if (state.getObserver() != null)
+			state.getObserver().onFreeParkingPoolChanged(freeParkingPool);
+	}
+
+	/**
+	 * @return The amount of money in the Free Parking pool
+	 */
+	public int getFreeParkingPool() {
+		return freeParkingPool;
+	}
+
+	/**
+	 * @return The total balance of every player still in the game
+	 */
+	public int getCirculation() {
+		return circulation;
+	}
+
+	/**
+	 * Rebuilds the books from the balances, for a state whose balances were
+	 * written directly rather than through the ledger (such as a replayed game).
+	 */
+	void recount() {
+		circulation = 0;
+		for (int seat = 0; seat < state.getSeats(); seat++)
+			if (state.isActive(seat))
+				circulation += state.getBalance(seat);
+	}
+
+	/**
+	 * Recomputes the money in circulation from every balance and compares it to
+	 * the running total. Meant for debugging and tests, not the hot path.
+	 *
+	 * @return True if the books balance
+	 */
+	public boolean isConsistent() {
+		int total = 0;
+		for (int seat = 0; seat < state.getSeats(); seat++)
+			if (state.isActive(seat))
+				total += state.getBalance(seat);
+		return total == circulation && circulation <= MONEY_SUPPLY;
+	}
+}
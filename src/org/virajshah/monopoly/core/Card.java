@@ -1,14 +1,11 @@
 package org.virajshah.monopoly.core;
 
-import java.util.ArrayList;
-import java.util.Random;
+import java.util.List;
+
+import org.virajshah.monopoly.tiles.BoardLayout;
 import org.virajshah.monopoly.tiles.FreeParkingTile;
-import org.virajshah.monopoly.tiles.OwnableTile;
-import org.virajshah.monopoly.tiles.PropertyTile;
 import org.virajshah.monopoly.tiles.RailroadTile;
-import org.virajshah.monopoly.tiles.Tile;
 import org.virajshah.monopoly.tiles.UtilityTile;
-import org.virajshah.monopoly.logs.Logger;
 
 /**
  * The Card class provides a container to hold data about Chance and Community
@@ -23,24 +20,46 @@ public class Card {
 	private static final String PAY_50 = "pay 50;";
 
 	/**
-	 * Logger (just for printing errors)
+	 * The number of ints taken by one compiled action: the opcode and two
+	 * arguments
 	 */
-	private static Logger logger = new Logger(true);
+	private static final int ACTION_SIZE = 3;
+
+	// Opcodes of compiled actions
+	private static final int GOTO = 0;
+	private static final int ADVANCE = 1;
+	private static final int ADVANCE_NEAREST_RAILROAD = 2;
+	private static final int ADVANCE_NEAREST_UTILITY = 3;
+	private static final int MOVE = 4;
+	private static final int EARN = 5;
+	private static final int EARN_FROM_ALL = 6;
+	private static final int PAY = 7;
+	private static final int PAY_ALL = 8;
+	private static final int PAY_BUILDINGS = 9;
+	private static final int GET_OUT_OF_JAIL = 10;
+	private static final int GO_TO_JAIL = 11;
+	private static final int UTILITY_JACKPOT = 12;
+	private static final int RAILROAD_JACKPOT = 13;
 
 	/**
-	 * The random number generator object
+	 * Returned by destination(int) for cards which send the player to jail
 	 */
-	private static final Random randomGenerator = new Random();
+	public static final int JAIL = -1;
 
 	/**
 	 * The message read on the card
 	 */
-	private String message;
+	private final String message;
 
 	/**
 	 * The calls to action for when a user picks up the card
 	 */
-	private String call;
+	private final String call;
+
+	/**
+	 * The call string compiled into actions (see compile(String))
+	 */
+	private final int[] actions;
 
 	/**
 	 * Initialize a new Card object
@@ -51,6 +70,7 @@ public class Card {
 	public Card(String message, String call) {
 		this.message = message;
 		this.call = call;
+		this.actions = compile(call);
 	}
 
 	/**
@@ -68,21 +88,85 @@ public class Card {
 	}
 
 	/**
-	 * Helper method for pickup(Player). It cleans the commands listed in the card
-	 * info.
+	 * Compiles a call string into a flat array of actions; each action takes
+	 * ACTION_SIZE ints: the opcode followed by up to two arguments.
 	 * 
-	 * @param commands The array of commands to clean
+	 * @param call The call string
+	 * @return The compiled actions
 	 */
-	private void cleanCommands(String[] commands) {
-		for (int i = 0; i < commands.length; i++) {
-			String currCall = commands[i];
-			while (currCall.charAt(0) == ' ')
-				currCall = currCall.substring(1);
+	private static int[] compile(String call) {
+		String[] commands = call.split(";");
+		int[] compiled = new int[commands.length * ACTION_SIZE];
+		int length = 0;
 
-			while (currCall.charAt(currCall.length() - 1) == ' ')
-				currCall = currCall.substring(0, currCall.length() - 1);
+		for (String command : commands) {
+			String[] words = command.trim().split(" ");
 
-			commands[i] = currCall;
+			if (words[0].isEmpty())
+				continue;
+
+			compiled[length] = opcodeOf(words);
+
+			// The arguments are the numbers in the command, in order
+			int arg = 1;
+			for (int w = 1; w < words.length && arg < ACTION_SIZE; w++)
+				if (isNumber(words[w]))
+					compiled[length + arg++] = Integer.parseInt(words[w]);
+
+			length += ACTION_SIZE;
+		}
+
+		int[] actions = new int[length];
+		System.arraycopy(compiled, 0, actions, 0, length);
+		return actions;
+	}
+
+	/**
+	 * @param word A word from a call string
+	 * @return True if the word is an integer
+	 */
+	private static boolean isNumber(String word) {
+		return word.matches("-?\\d+");
+	}
+
+	/**
+	 * Helper method for compile(String). It finds the opcode of a single command.
+	 * 
+	 * @param words The words of the command
+	 * @return The opcode of the command
+	 */
+	private static int opcodeOf(String[] words) {
+		switch (words[0]) {
+		case "advance":
+			if (!words[1].equals("nearest"))
+				return ADVANCE;
+			else if (words[2].charAt(0) == 'r')
+				return ADVANCE_NEAREST_RAILROAD;
+			else if (words[2].charAt(0) == 'u')
+				return ADVANCE_NEAREST_UTILITY;
+			throw new IllegalArgumentException("Cannot advance to nearest: \"" + words[2] + "\"");
+		case "goto":
+			return GOTO;
+		case "earn":
+			return words[1].equals("from-all") ? EARN_FROM_ALL : EARN;
+		case "pay":
+			if (words[1].equals("all"))
+				return PAY_ALL;
+			else if (words[1].equals("buildings"))
+				return PAY_BUILDINGS;
+			return PAY;
+		case "get-out-of-jail":
+			return GET_OUT_OF_JAIL;
+		case "go-to-jail":
+			return GO_TO_JAIL;
+		case "utility-jackpot":
+			return UTILITY_JACKPOT;
+		case "railroad-jackpot":
+			return RAILROAD_JACKPOT;
+		case "move":
+			return MOVE;
+		default:
+			throw new IllegalArgumentException("An unknown call has been found: " + words[0]);
 		}
 	}
 
@@ -102,35 +186,6 @@ public class Card {
 		player.setPosition(advanceTo);
 	}
 
-	/**
-	 * Helper method for pickup(Player). It advances a player to the nearest
-	 * railroad/utility
-	 * 
-	 * @param player The player to moved
-	 * @param place  'u' = nearest utility, 'r' = nearest railroad
-	 */
-	private static void advancePlayerTo(Player player, char place) {
-		int playerPos = player.getPosition();
-
-		if (place == 'r') {
-			while (!(playerPos % 10 != 0 && playerPos % 5 == 0)) {
-				playerPos++;
-				if (playerPos > 39)
-					playerPos = 0;
-			}
-			player.setPosition(playerPos);
-		} else if (place == 'u') {
-			while (!(playerPos == 12 || playerPos == 28)) {
-				playerPos++;
-				if (playerPos > 39)
-					playerPos = 0;
-			}
-			player.setPosition(playerPos);
-		} else {
-			logger.error("Cannot advance to nearest: \"" + place + "\"");
-		}
-	}
-
 	/**
 	 * Counts the total number of hotels a specified player has
 	 * 
@@ -138,9 +193,10 @@ public class Card {
 	 * @return The number of hotels the player has
 	 */
 	private static int getPlayerTotalHotels(Player player) {
+		GameState state = player.getGame().getState();
 		int total = 0;
-		for (OwnableTile asset : player.getAssets())
-			if (asset.getType() == Tile.TileType.PROPERTY && ((PropertyTile) asset).hasHotel())
+		for (long rest = player.getOwnershipMask(); rest != 0; rest &= rest - 1)
+			if (state.getHouses(Long.numberOfTrailingZeros(rest)) == 5)
 				total++;
 		return total;
 	}
@@ -152,120 +208,158 @@ public class Card {
 	 * @return The number of houses the player has
 	 */
 	private static int getPlayerTotalHouses(Player player) {
+		GameState state = player.getGame().getState();
 		int total = 0;
-		for (OwnableTile asset : player.getAssets())
-			if (asset.getType() == Tile.TileType.PROPERTY && !((PropertyTile) asset).hasHotel())
-				total += player.getNumberOfHouses();
+		for (long rest = player.getOwnershipMask(); rest != 0; rest &= rest - 1) {
+			int houses = state.getHouses(Long.numberOfTrailingZeros(rest));
+			if (houses < 5)
+				total += houses;
+		}
 		return total;
 	}
 
 	/**
-	 * If the player must engage in a transaction (paying/getting money), do it
+	 * Pay money into the free parking pool
 	 * 
-	 * @param player The player in respect to the transaction
-	 * @param args   The call string
+	 * @param player The player paying
+	 * @param amount The amount to pay
 	 */
-	private static void calledTransaction(Player player, String[] args) {
-		if (args[0].equals("earn")) {
-			if (args[1].equals("from-all")) {
-				ArrayList<Player> players = (ArrayList<Player>) (player.getGame().getPlayers());
-
-				int amount = Integer.parseInt(args[2]);
-				for (int i = 0; i < players.size(); i++) {
-					players.get(i).deductBalance(amount);
-				}
-
-				player.addBalance(amount * players.size());
-			} else {
-				player.addBalance(Integer.parseInt(args[1]));
-			}
-		} else if (args[0].equals("pay")) {
-			if (args[1].equals("all")) { // Money is distributed to each player
-				// The logic in this block works out perfectly
-				// 1.
-				int amount = Integer.parseInt(args[2]);
-				ArrayList<Player> otherPlayers = (ArrayList<Player>) (player.getGame().getPlayers());
-				player.deductBalance(amount * otherPlayers.size());
-				for (Player otherPlayer : otherPlayers) {
-					otherPlayer.addBalance(amount);
-				}
-			} else if (args[1].equals("buildings")) { // Money for houses and
-				// hotels; also goes to
-				// free parking.
-				int houseAmount = Integer.parseInt(args[2]) * getPlayerTotalHouses(player);
-				int hotelAmount = Integer.parseInt(args[3]) * getPlayerTotalHotels(player);
-				int totalFee = houseAmount + hotelAmount;
-
-				// Deduct balance from user
-				player.deductBalance(totalFee);
-				// Add money to the free parking tile
-				((FreeParkingTile) player.getGame().tileAt(20)).addToPool(totalFee);
-			} else { // The money goes to free parking
-				int amount = Integer.parseInt(args[1]);
-				player.deductBalance(amount);
-				((FreeParkingTile) player.getGame().tileAt(20)).addToPool(amount);
-				// Index 20 is the free parking tile on the board ^
-			}
+	private static void payToFreeParking(Player player, int amount) {
+		player.deductBalance(amount);
+		// Index 20 is the free parking tile on the board
+		((FreeParkingTile) player.getGame().tileAt(20)).addToPool(amount);
+	}
+
+	/**
+	 * Call a jackpot (double rent) on the utility the player is standing on
+	 * 
+	 * @param player The player who landed on the jackpot
+	 */
+	private static void callUtilityJackpot(Player player) {
+		UtilityTile utility = (UtilityTile) player.getGame().tileAt(player.getPosition());
+		if (utility.isOwned() && utility.getOwner() != player) {
+			int total = Dice.total(player.getGame().getContext().getDice().roll2());
+			int amountPaid = total * 10;
+			player.deductBalance(amountPaid);
+			utility.getOwner().addBalance(amountPaid);
 		}
 	}
 
 	/**
-	 * Call a jackpot (double rent) on a utility or railroad
+	 * Call a jackpot (double rent) on the railroad the player is standing on
 	 * 
 	 * @param player The player who landed on the jackpot
-	 * @param args   The call string
 	 */
-	private static void callJackpot(Player player, String[] args) {
-		if (args[0].equals("utility-jackpot")) {
-			UtilityTile utility = (UtilityTile) player.getGame().tileAt(player.getPosition());
-			if (utility.isOwned() && utility.getOwner() != player) {
-				int[] rolls = Dice.roll2();
-				int total = rolls[0] + rolls[1];
-				int amountPaid = total * 10;
-				player.deductBalance(amountPaid);
-				utility.getOwner().addBalance(amountPaid);
-			}
-		} else if (args[0].equals("railroad-jackpot")) {
-			RailroadTile railroad = (RailroadTile) player.getGame().tileAt(player.getPosition());
-			if (railroad.isOwned() && railroad.getOwner() != player) {
-				int amountPaid = railroad.getRent() * 2;
-				player.deductBalance(amountPaid);
-				railroad.getOwner().addBalance(amountPaid);
-			}
+	private static void callRailroadJackpot(Player player) {
+		RailroadTile railroad = (RailroadTile) player.getGame().tileAt(player.getPosition());
+		if (railroad.isOwned() && railroad.getOwner() != player) {
+			int amountPaid = railroad.getRent() * 2;
+			player.deductBalance(amountPaid);
+			railroad.getOwner().addBalance(amountPaid);
 		}
 	}
 
 	/**
-	 * Handles all the calls which can be linked to a community chest/chance card
+	 * Runs a single compiled action on a player
 	 * 
 	 * @param player The player who picked up the card
-	 * @param call   The call string
+	 * @param opcode The action to run
+	 * @param arg1   The first argument of the action
+	 * @param arg2   The second argument of the action
 	 */
-	private static void handleCall(Player player, String call) {
-		String[] words = call.split(" ");
-
-		if (words[0].equals("advance")) {
-			if (words[1].equals("nearest"))
-				advancePlayerTo(player, words[2].charAt(0));
-			else
-				advancePlayerTo(player, Integer.parseInt(words[1]));
-		} else if (words[0].equals("goto")) {
-			player.setPosition(Integer.parseInt(words[1]));
-		} else if (words[0].equals("earn") || words[0].equals("pay")) {
-			calledTransaction(player, words);
-		} else if (words[0].equals("get-out-of-jail")) {
+	private static void run(Player player, int opcode, int arg1, int arg2) {
+		GameState state = player.getGame().getState();
+		// The seats in the game when the card was drawn; a seat going bankrupt
+		// while the card is paid out only clears its bit in the live mask
+		int active = state.getActiveSeats();
+
+		switch (opcode) {
+		case GOTO:
+			player.setPosition(arg1);
+			break;
+		case ADVANCE:
+			advancePlayerTo(player, arg1);
+			break;
+		case ADVANCE_NEAREST_RAILROAD:
+			player.setPosition(BoardLayout.nearestRailroad(player.getPosition()));
+			break;
+		case ADVANCE_NEAREST_UTILITY:
+			player.setPosition(BoardLayout.nearestUtility(player.getPosition()));
+			break;
+		case MOVE:
+			player.setPosition(player.getPosition() + arg1);
+			break;
+		case EARN:
+			player.addBalance(arg1);
+			break;
+		case EARN_FROM_ALL:
+			for (int rest = active; rest != 0; rest &= rest - 1)
+				state.getPlayer(Integer.numberOfTrailingZeros(rest)).deductBalance(arg1);
+			player.addBalance(arg1 * Integer.bitCount(active));
+			break;
+		case PAY:
+			// The money goes to free parking
+			payToFreeParking(player, arg1);
+			break;
+		case PAY_ALL:
+			// Money is distributed to each player
+			player.deductBalance(arg1 * Integer.bitCount(active));
+			for (int rest = active; rest != 0; rest &= rest - 1)
+				state.getPlayer(Integer.numberOfTrailingZeros(rest)).addBalance(arg1);
+			break;
+		case PAY_BUILDINGS:
+			// Money for houses and hotels; also goes to free parking
+			payToFreeParking(player, arg1 * getPlayerTotalHouses(player) + arg2 * getPlayerTotalHotels(player));
+			break;
+		case GET_OUT_OF_JAIL:
 			player.addGetOutOfJailCard();
-		} else if (words[0].equals("go-to-jail")) {
+			break;
+		case GO_TO_JAIL:
 			player.setPosition(10);
 			player.goToJail();
-		} else if (words[0].indexOf("-jackpot") >= 0) {
-			callJackpot(player, words);
-		} else if (words[0].equals("move")) {
-			int moveBy = Integer.parseInt(words[1]);
-			player.setPosition(player.getPosition() + moveBy);
-		} else {
-			logger.error("An unknown call has been found: " + words[0]);
+			break;
+		case UTILITY_JACKPOT:
+			callUtilityJackpot(player);
+			break;
+		case RAILROAD_JACKPOT:
+			callRailroadJackpot(player);
+			break;
+		default:
+			player.getGame().getLogger().error("An unknown action has been found: " + opcode);
+		}
+	}
+
+	/**
+	 * Finds where the card leaves a player without running any of its other
+	 * actions
+	 *
+	 * @param position The position of the player picking up the card
+	 * @return The position of the player after picking up the card, or JAIL if
+	 *         the card sends the player to jail
+	 */
+	public int destination(int position) {
+		for (int i = 0; i < actions.length; i += ACTION_SIZE) {
+			switch (actions[i]) {
+			case GOTO:
+			case ADVANCE:
+				position = actions[i + 1];
+				break;
+			case ADVANCE_NEAREST_RAILROAD:
+				position = BoardLayout.nearestRailroad(position);
+				break;
+			case ADVANCE_NEAREST_UTILITY:
+				position = BoardLayout.nearestUtility(position);
+				break;
+			case MOVE:
+				position += actions[i + 1];
+				break;
+			case GO_TO_JAIL:
+				return JAIL;
+			default:
+				break;
+			}
 		}
+		return position;
 	}
 
 	/**
@@ -275,15 +369,8 @@ public class Card {
 	 * @param player The player which picks up this card
 	 */
 	void pickup(Player player) {
-		String[] calls = call.split(";");
-
-		// Clean up each command
-		cleanCommands(calls);
-
-		// Loop through the array of commands
-		for (String currCall : calls) {
-			handleCall(player, currCall);
-		}
+		for (int i = 0; i < actions.length; i += ACTION_SIZE)
+			run(player, actions[i], actions[i + 1], actions[i + 2]);
 	}
 
 	/**
@@ -329,15 +416,27 @@ public class Card {
 			new Card("You have won a crossword competition. Collect $100.", "earn 100") };
 
 	/**
-	 * Return a random card from any deck (array) of cards; usually community
-	 * chest/chance
-	 *
-	 * @param deck A deck (array) of Card objects
-	 * @return A random card object from the deck provided
+	 * The chance cards, in deck order
+	 */
+	private static final List<Card> CHANCE_CARDS = List.of(chanceDeck);
+
+	/**
+	 * The community chest cards, in deck order
+	 */
+	private static final List<Card> COMMUNITY_CHEST_CARDS = List.of(communityChestDeck);
+
+	/**
+	 * @return The chance cards, in deck order
+	 */
+	public static List<Card> getChanceDeck() {
+		return CHANCE_CARDS;
+	}
+
+	/**
+	 * @return The community chest cards, in deck order
 	 */
-	static Card pickRandomCard(Card[] deck) {
-		int index = randomGenerator.nextInt(deck.length);
-		return deck[index];
+	public static List<Card> getCommunityChestDeck() {
+		return COMMUNITY_CHEST_CARDS;
 	}
 
 	/**
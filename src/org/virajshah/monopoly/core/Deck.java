@@ -0,0 +1,85 @@
+package org.virajshah.monopoly.core;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A shuffled deck of cards belonging to a single game. Cards are drawn in
+ * shuffled order through an int cursor; once every card has been drawn the
+ * deck is reshuffled. Drawing a card never allocates.
+ * 
+ * @author Viraj Shah
+ */
+class Deck {
+	/**
+	 * The cards in the deck (shared between games, never modified)
+	 */
+	private final Card[] cards;
+
+	/**
+	 * The shuffled order of the cards (indices into cards)
+	 */
+	private final int[] order;
+
+	/**
+	 * The position of the next card to draw in order
+	 */
+	private int cursor;
+
+	/**
+	 * The random number generator of the game which owns the deck
+	 */
+	private final RandomGenerator randomGenerator;
+
+	/**
+	 * Constructs a deck
+	 * 
+	 * @param cards           The cards in the deck
+	 * @param randomGenerator The random number generator of the game which owns
+	 *                        the deck
+	 */
+	Deck(Card[] cards, RandomGenerator randomGenerator) {
+		this.cards = cards;
+		this.randomGenerator = randomGenerator;
+		order = new int[cards.length];
+		for (int i = 0; i < order.length; i++)
+			order[i] = i;
+		cursor = order.length;
+	}
+
+	/**
+	 * Copies a deck part way through, drawing the same cards in the same order
+	 * until it runs out; later shuffles use the new random stream
+	 *
+	 * @param source          The deck to copy
+	 * @param randomGenerator The random stream of the copy
+	 */
+	Deck(Deck source, RandomGenerator randomGenerator) {
+		cards = source.cards;
+		this.randomGenerator = randomGenerator;
+		order = source.order.clone();
+		cursor = source.cursor;
+	}
+
+	/**
+	 * Shuffles the deck (Fisher-Yates) and moves the cursor back to the top
+	 */
+	private void shuffle() {
+		for (int i = order.length - 1; i > 0; i--) {
+			int j = randomGenerator.nextInt(i + 1);
+			int tmp = order[i];
+			order[i] = order[j];
+			order[j] = tmp;
+		}
+		cursor = 0;
+	}
+
+	/**
+	 * @return The next card in the deck, reshuffling first if every card has been
+	 *         drawn
+	 */
+	Card draw() {
+		if (cursor == order.length)
+			shuffle();
+		return cards[order[cursor++]];
+	}
+}
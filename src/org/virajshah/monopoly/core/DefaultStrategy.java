@@ -0,0 +1,22 @@
+package org.virajshah.monopoly.core;
+
+/**
+ * The strategy every player uses unless told otherwise: buy every tile, build
+ * while a house costs less than a quarter of the balance, lift a mortgage
+ * (with 10% interest) while it costs less than a quarter of the balance,
+ * mortgage only what a payment needs, and keep $300 after any trade. Tiles are
+ * valued by the standard multipliers of ParameterizedStrategy.
+ *
+ * @author Viraj Shah
+ */
+public class DefaultStrategy extends ParameterizedStrategy {
+	/**
+	 * The shared instance
+	 */
+	public static final DefaultStrategy INSTANCE = new DefaultStrategy();
+
+	@Override
+	public String getName() {
+		return "DefaultStrategy";
+	}
+}
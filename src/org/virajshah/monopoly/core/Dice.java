@@ -1,42 +1,109 @@
 package org.virajshah.monopoly.core;
 
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * The Dice class allows for realistic random dice rolls. Where two separate
  * events are used to roll a dice. This allows for catching events such as
  * rolling doubles, and a mode-average roll of 7
  * 
+ * Rolling two dice draws a single number between 0 and 35, which indexes a
+ * precomputed table of the 36 equally likely outcomes.
+ * 
  * @author Viraj Shah
  */
 class Dice {
-	private Dice() {
-		// Utility class
+	/**
+	 * The number of equally likely outcomes of rolling two dice
+	 */
+	static final int OUTCOMES = 36;
+
+	/**
+	 * The value of the first die for each outcome
+	 */
+	private static final int[] FIRST = new int[OUTCOMES];
+
+	/**
+	 * The value of the second die for each outcome
+	 */
+	private static final int[] SECOND = new int[OUTCOMES];
+
+	/**
+	 * The sum of both dice for each outcome
+	 */
+	private static final int[] TOTAL = new int[OUTCOMES];
+
+	static {
+		for (int i = 0; i < OUTCOMES; i++) {
+			FIRST[i] = i / 6 + 1;
+			SECOND[i] = i % 6 + 1;
+			TOTAL[i] = FIRST[i] + SECOND[i];
+		}
 	}
-	
+
 	/**
 	 * Random number generator
 	 */
-	private static Random randomGenerator = new Random();
-	
+	private final RandomGenerator randomGenerator;
+
+	/**
+	 * Constructs a pair of dice
+	 * 
+	 * @param randomGenerator The random number generator of the game which owns
+	 *                        the dice
+	 */
+	Dice(RandomGenerator randomGenerator) {
+		this.randomGenerator = randomGenerator;
+	}
+
 	/**
 	 * Roll a single die
 	 *
 	 * @return A random number between 1 and 6, inclusive
 	 */
-	static int roll1() {
+	int roll1() {
 		return randomGenerator.nextInt(6) + 1;
 	}
 
 	/**
-	 * Roll two dices and return the rolls and a 2-element int array.
+	 * Roll two dice with a single call to the random number generator.
 	 *
-	 * @return The results of rolling two dices; returns (new int[2]), where both
-	 *         integers a between 1 and 6, inclusive
+	 * @return The outcome of the roll (0 &le; outcome &lt; 36); use first(int),
+	 *         second(int), total(int) and isDoubles(int) to read it
+	 */
+	int roll2() {
+		return randomGenerator.nextInt(OUTCOMES);
+	}
+
+	/**
+	 * @param outcome An outcome returned by roll2()
+	 * @return The value of the first die
+	 */
+	static int first(int outcome) {
+		return FIRST[outcome];
+	}
+
+	/**
+	 * @param outcome An outcome returned by roll2()
+	 * @return The value of the second die
+	 */
+	static int second(int outcome) {
+		return SECOND[outcome];
+	}
+
+	/**
+	 * @param outcome An outcome returned by roll2()
+	 * @return The sum of both dice
+	 */
+	static int total(int outcome) {
+		return TOTAL[outcome];
+	}
+
+	/**
+	 * @param outcome An outcome returned by roll2()
+	 * @return True if both dice show the same value
 	 */
-	static int[] roll2() {
-		int r1 = roll1();
-		int r2 = roll1();
-		return new int[] { r1, r2 };
+	static boolean isDoubles(int outcome) {
+		return outcome % 7 == 0;
 	}
 }
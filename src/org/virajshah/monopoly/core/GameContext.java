@@ -0,0 +1,186 @@
+package org.virajshah.monopoly.core;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+import org.virajshah.monopoly.logs.Logger;
+
+/**
+ * Holds everything a single game needs which used to live in static fields:
+ * the random number stream, the dice, the card decks, the logger and the
+ * signal which ends the game. No two games share a context, so any number of
+ * games can be played at once inside one JVM.
+ *
+ * @author Viraj Shah
+ */
+public class GameContext {
+	/**
+	 * The seed of this game's random number stream
+	 */
+	private final long seed;
+
+	/**
+	 * The random number generator used for every dice roll and card draw in this
+	 * game
+	 */
+	private final RandomGenerator randomGenerator;
+
+	/**
+	 * The dice rolled by the players of this game
+	 */
+	private final Dice dice;
+
+	/**
+	 * The chance cards drawn from in this game
+	 */
+	private final Deck chanceDeck;
+
+	/**
+	 * The community chest cards drawn from in this game
+	 */
+	private final Deck communityChestDeck;
+
+	/**
+	 * The logger tool for this game
+	 */
+	private final Logger logger;
+
+	/**
+	 * True once the game has been told to stop
+	 */
+	private boolean terminated;
+
+	/**
+	 * Why the game was stopped; null while the game is still running
+	 */
+	private String terminationReason;
+
+	/**
+	 * The exception which stopped the game; null unless the game failed
+	 */
+	private Throwable failure;
+
+	/**
+	 * Constructs the context of a new game
+	 *
+	 * @param seed The seed of the game's random number stream
+	 */
+	GameContext(long seed) {
+		this.seed = seed;
+		randomGenerator = new SplittableRandom(seed);
+		dice = new Dice(randomGenerator);
+		chanceDeck = new Deck(Card.chanceDeck, randomGenerator);
+		communityChestDeck = new Deck(Card.communityChestDeck, randomGenerator);
+		logger = new Logger(true);
+		terminated = false;
+	}
+
+	/**
+	 * Copies the context of a game for a fork of the game: the decks continue
+	 * from where they are, and the logger keeps its settings (but not its
+	 * messages). The copy has its own random stream, so it shares nothing with
+	 * the original.
+	 *
+	 * @param source The context to copy
+	 * @param seed   The seed of the copy's random number stream
+	 */
+	GameContext(GameContext source, long seed) {
+		this.seed = seed;
+		randomGenerator = new SplittableRandom(seed);
+		dice = new Dice(randomGenerator);
+		chanceDeck = new Deck(source.chanceDeck, randomGenerator);
+		communityChestDeck = new Deck(source.communityChestDeck, randomGenerator);
+		logger = new Logger(source.logger.isPrintingEnabled(), source.logger.getLevel(),
+				source.logger.getCapacity());
+		terminated = source.terminated;
+		terminationReason = source.terminationReason;
+		failure = source.failure;
+	}
+
+	/**
+	 * @return The seed of this game's random number stream
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @return The random number generator of this game
+	 */
+	RandomGenerator getRandomGenerator() {
+		return randomGenerator;
+	}
+
+	/**
+	 * @return The dice rolled by the players of this game
+	 */
+	Dice getDice() {
+		return dice;
+	}
+
+	/**
+	 * @return The next card from this game's chance deck
+	 */
+	Card drawChanceCard() {
+		return chanceDeck.draw();
+	}
+
+	/**
+	 * @return The next card from this game's community chest deck
+	 */
+	Card drawCommunityChestCard() {
+		return communityChestDeck.draw();
+	}
+
+	/**
+	 * @return The logger associated with the game
+	 */
+	public Logger getLogger() {
+		return logger;
+	}
+
+	/**
+	 * Stops the game. Only the first reason given is kept.
+	 *
+	 * @param reason Why the game is being stopped
+	 */
+	public void terminate(String reason) {
+		if (!terminated) {
+			terminated = true;
+			terminationReason = reason;
+			logger.error(reason);
+		}
+	}
+
+	/**
+	 * Stops the game because it threw an exception
+	 *
+	 * @param cause The exception thrown by the game
+	 */
+	public void fail(Throwable cause) {
+		if (!terminated)
+			failure = cause;
+		terminate("Game failed: " + cause);
+	}
+
+	/**
+	 * @return True once the game has been told to stop
+	 */
+	public boolean isTerminated() {
+		return terminated;
+	}
+
+	/**
+	 * @return Why the game was stopped; null while the game is still running
+	 */
+	public String getTerminationReason() {
+		return terminationReason;
+	}
+
+	/**
+	 * @return The exception which stopped the game; null unless the game failed
+	 */
+	public Throwable getFailure() {
+		return failure;
+	}
+}
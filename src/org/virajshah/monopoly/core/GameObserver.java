@@ -0,0 +1,155 @@
+package org.virajshah.monopoly.core;
+
+/**
+ * Receives the events of a single game: what happens during each turn (rolls,
+ * moves, purchases, rent, cards, trades and bankruptcies) and every change
+ * made to the game's state. Every method does nothing by default, so an
+ * observer only overrides the events it cares about.
+ *
+ * Events are delivered synchronously on the thread playing the game, in the
+ * order they happen. A game with no observer pays only a null check per event.
+ *
+ * @author Viraj Shah
+ */
+public interface GameObserver {
+	/**
+	 * A player is about to play a turn
+	 *
+	 * @param turn The number of the turn (the first turn is 1)
+	 * @param seat The seat of the player
+	 */
+	default void onTurnStart(int turn, int seat) {
+	}
+
+	/**
+	 * A player rolled the dice
+	 *
+	 * @param seat The seat of the player
+	 * @param die1 The first die
+	 * @param die2 The second die
+	 */
+	default void onRoll(int seat, int die1, int die2) {
+	}
+
+	/**
+	 * A player moved by rolling the dice
+	 *
+	 * @param seat The seat of the player
+	 * @param from The position moved from
+	 * @param to   The position moved to
+	 */
+	default void onMove(int seat, int from, int to) {
+	}
+
+	/**
+	 * A player bought a tile from the bank
+	 *
+	 * @param seat The seat of the player
+	 * @param tile The tile index
+	 */
+	default void onPurchase(int seat, int tile) {
+	}
+
+	/**
+	 * A player was charged rent
+	 *
+	 * @param payer  The seat of the player paying
+	 * @param owner  The seat of the owner of the tile
+	 * @param tile   The tile index
+	 * @param amount The rent charged
+	 */
+	default void onRent(int payer, int owner, int tile, int amount) {
+	}
+
+	/**
+	 * A player drew a card
+	 *
+	 * @param seat The seat of the player
+	 * @param tile The tile the card was drawn on
+	 * @param card The card drawn
+	 */
+	default void onCardDrawn(int seat, int tile, Card card) {
+	}
+
+	/**
+	 * A trade offer was executed
+	 *
+	 * @param sender       The seat of the player who made the offer
+	 * @param receiver     The seat of the player who accepted it
+	 * @param senderTile   The tile given by the sender
+	 * @param receiverTile The tile given by the receiver
+	 * @param cash         The cash paid by the sender (negative if received)
+	 */
+	default void onTrade(int sender, int receiver, int senderTile, int receiverTile, int cash) {
+	}
+
+	/**
+	 * A player went bankrupt
+	 *
+	 * @param seat The seat of the player
+	 */
+	default void onBankruptcy(int seat) {
+	}
+
+	/**
+	 * @param tile The tile index
+	 * @param seat The seat of the new owner, or GameState.NO_OWNER
+	 */
+	default void onOwnerChanged(int tile, int seat) {
+	}
+
+	/**
+	 * @param tile   The tile index
+	 * @param houses The new number of houses on the tile (5 = hotel)
+	 */
+	default void onHousesChanged(int tile, int houses) {
+	}
+
+	/**
+	 * @param tile      The tile index
+	 * @param mortgaged True if the tile is now mortgaged
+	 */
+	default void onMortgageChanged(int tile, boolean mortgaged) {
+	}
+
+	/**
+	 * @param seat    The seat number
+	 * @param balance The new balance of the seat
+	 */
+	default void onBalanceChanged(int seat, int balance) {
+	}
+
+	/**
+	 * @param seat     The seat number
+	 * @param position The new board position of the seat
+	 */
+	default void onPositionChanged(int seat, int position) {
+	}
+
+	/**
+	 * @param seat   The seat number
+	 * @param inJail True if the seat is now in jail
+	 */
+	default void onInJailChanged(int seat, boolean inJail) {
+	}
+
+	/**
+	 * @param seat  The seat number
+	 * @param turns The new number of turns the seat has spent in jail
+	 */
+	default void onTurnsInJailChanged(int seat, int turns) {
+	}
+
+	/**
+	 * @param seat  The seat number
+	 * @param cards The new number of get out of jail free cards held by the seat
+	 */
+	default void onGetOutOfJailCardsChanged(int seat, int cards) {
+	}
+
+	/**
+	 * @param amount The new amount of money in the Free Parking pool
+	 */
+	default void onFreeParkingPoolChanged(int amount) {
+	}
+}
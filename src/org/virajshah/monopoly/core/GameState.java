@@ -0,0 +1,536 @@
+package org.virajshah.monopoly.core;
+
+import java.util.Arrays;
+
+import org.virajshah.monopoly.tiles.BoardLayout;
+
+/**
+ * The mutable state of a single game, stored as a handful of flat primitive
+ * arrays (structure of arrays) instead of being spread across Tile and Player
+ * objects. Tiles and players of a game are thin views which read and write
+ * this state by tile index and seat number, so a whole game fits in a few
+ * hundred bytes and every state change goes through one class.
+ *
+ * @author Viraj Shah
+ */
+public class GameState {
+	/**
+	 * The number of tiles on the board
+	 */
+	public static final int TILES = 40;
+
+	/**
+	 * The owner of a tile which belongs to the bank
+	 */
+	public static final int NO_OWNER = -1;
+
+	/**
+	 * The amount of money every player starts with
+	 */
+	public static final int STARTING_BALANCE = 1500;
+
+	/**
+	 * The seat number of the owner of each tile (NO_OWNER if owned by the bank)
+	 */
+	private final byte[] owners;
+
+	/**
+	 * Bit i of entry s is set if seat s owns tile i
+	 */
+	private final long[] ownership;
+
+	/**
+	 * The number of houses on each tile (5 = hotel)
+	 */
+	private final byte[] houses;
+
+	/**
+	 * The current rent of each tile, looked up in the rent table of BoardLayout
+	 * whenever ownership or houses change (for utilities, the multiplier of the
+	 * dice roll)
+	 */
+	private final int[] rents;
+
+	/**
+	 * A counter per seat which changes whenever the seat's tiles or the houses on
+	 * them change
+	 */
+	private final int[] portfolioVersions;
+
+	/**
+	 * Bit i is set if tile i is mortgaged
+	 */
+	private long mortgaged;
+
+	/**
+	 * The balance of each seat
+	 */
+	private final int[] balances;
+
+	/**
+	 * The board position of each seat
+	 */
+	private final byte[] positions;
+
+	/**
+	 * The number of turns each seat has spent in jail
+	 */
+	private final byte[] turnsInJail;
+
+	/**
+	 * The number of get out of jail free cards held by each seat
+	 */
+	private final byte[] getOutOfJailCards;
+
+	/**
+	 * Bit i is set if seat i is in jail
+	 */
+	private int jailed;
+
+	/**
+	 * Bit i is set while seat i is still in the game (has not gone bankrupt)
+	 */
+	private int active;
+
+	/**
+	 * The Zobrist hash of the state, kept up to date by every setter
+	 */
+	private long hash;
+
+	/**
+	 * The books of the money held by players and the Free Parking pool
+	 */
+	private final BankLedger ledger;
+
+	/**
+	 * The sum of the last dice roll (used for rent on utilities)
+	 */
+	private int lastDiceRoll;
+
+	/**
+	 * The Player object seated at each seat
+	 */
+	private final Player[] players;
+
+	/**
+	 * Told about every change to this state; null if nobody is listening
+	 */
+	private GameObserver observer;
+
+	/**
+	 * Constructs the state of a new game
+	 *
+	 * @param seats The number of players in the game
+	 */
+	public GameState(int seats) {
+		owners = new byte[TILES];
+		houses = new byte[TILES];
+		rents = new int[TILES];
+		ownership = new long[seats];
+		portfolioVersions = new int[seats];
+		balances = new int[seats];
+		positions = new byte[seats];
+		turnsInJail = new byte[seats];
+		getOutOfJailCards = new byte[seats];
+		players = new Player[seats];
+
+		Arrays.fill(owners, (byte) NO_OWNER);
+		Arrays.fill(balances, STARTING_BALANCE);
+		active = (1 << seats) - 1;
+		for (int tile = 0; tile < TILES; tile++)
+			updateRent(tile);
+		hash = computeHash();
+		ledger = new BankLedger(this);
+	}
+
+	/**
+	 * Copies the state of a game, for a fork of the game. The copy shares nothing
+	 * with the original and has no observer; its players are seated by the fork.
+	 *
+	 * @param source The state to copy
+	 */
+	GameState(GameState source) {
+		owners = source.owners.clone();
+		houses = source.houses.clone();
+		rents = source.rents.clone();
+		ownership = source.ownership.clone();
+		portfolioVersions = source.portfolioVersions.clone();
+		mortgaged = source.mortgaged;
+		balances = source.balances.clone();
+		positions = source.positions.clone();
+		turnsInJail = source.turnsInJail.clone();
+		getOutOfJailCards = source.getOutOfJailCards.clone();
+		jailed = source.jailed;
+		active = source.active;
+		hash = source.hash;
+		lastDiceRoll = source.lastDiceRoll;
+		players = new Player[source.players.length];
+		ledger = new BankLedger(this, source.ledger);
+	}
+
+	/**
+	 * @return The number of seats in the game
+	 */
+	public int getSeats() {
+		return players.length;
+	}
+
+	/**
+	 * Seats a player
+	 *
+	 * @param seat   The seat number
+	 * @param player The player to seat
+	 */
+	void seatPlayer(int seat, Player player) {
+		players[seat] = player;
+	}
+
+	/**
+	 * @param seat A seat number, or NO_OWNER
+	 * @return The player at the seat; null for NO_OWNER
+	 */
+	public Player getPlayer(int seat) {
+		return seat == NO_OWNER ? null : players[seat];
+	}
+
+	/**
+	 * @param seat The seat number
+	 * @return True while the seat is still in the game (has not gone bankrupt)
+	 */
+	public boolean isActive(int seat) {
+		return (active & (1 << seat)) != 0;
+	}
+
+	/**
+	 * @return The seats still in the game as a bitmask (bit i = seat i)
+	 */
+	public int getActiveSeats() {
+		return active;
+	}
+
+	/**
+	 * Takes a seat out of the game. Seats are never removed or renumbered, so
+	 * this is safe in the middle of any loop over the seats.
+	 *
+	 * @param seat The seat number
+	 */
+	void deactivate(int seat) {
+		if (isActive(seat))
+			hash ^= Zobrist.key(Zobrist.BANKRUPT, seat, 0);
+		active &= ~(1 << seat);
+	}
+
+	/**
+	 * @return The Zobrist hash of the state: who owns each tile, the houses on it
+	 *         and whether it is mortgaged, and every seat's position, balance
+	 *         (in buckets of Zobrist.BALANCE_BUCKET), jail state and whether it
+	 *         has gone bankrupt. Equal states have equal hashes; states which
+	 *         differ only within a balance bucket (or in the Free Parking pool or
+	 *         the last dice roll) do too.
+	 */
+	public long getHash() {
+		return hash;
+	}
+
+	/**
+	 * Computes the Zobrist hash of the state from scratch; getHash() is always
+	 * equal to this
+	 *
+	 * @return The Zobrist hash of the state
+	 */
+	long computeHash() {
+		long h = 0;
+		for (int tile = 0; tile < TILES; tile++) {
+			if (owners[tile] != NO_OWNER)
+				h ^= Zobrist.key(Zobrist.OWNER, tile, owners[tile]);
+			if (houses[tile] != 0)
+				h ^= Zobrist.key(Zobrist.HOUSES, tile, houses[tile]);
+			if (isMortgaged(tile))
+				h ^= Zobrist.key(Zobrist.MORTGAGED, tile, 0);
+		}
+		for (int seat = 0; seat < players.length; seat++) {
+			h ^= Zobrist.key(Zobrist.POSITION, seat, positions[seat]);
+			h ^= Zobrist.balanceKey(seat, balances[seat]);
+			if (isInJail(seat))
+				h ^= Zobrist.key(Zobrist.IN_JAIL, seat, 0);
+			if (turnsInJail[seat] != 0)
+				h ^= Zobrist.key(Zobrist.TURNS_IN_JAIL, seat, turnsInJail[seat]);
+			if (getOutOfJailCards[seat] != 0)
+				h ^= Zobrist.key(Zobrist.JAIL_CARDS, seat, getOutOfJailCards[seat]);
+			if (!isActive(seat))
+				h ^= Zobrist.key(Zobrist.BANKRUPT, seat, 0);
+		}
+		return h;
+	}
+
+	/**
+	 * @param tile The tile index
+	 * @return The seat number of the owner of the tile, or NO_OWNER
+	 */
+	public int getOwner(int tile) {
+		return owners[tile];
+	}
+
+	/**
+	 * @param tile The tile index
+	 * @param seat The seat number of the new owner, or NO_OWNER
+	 */
+	public void setOwner(int tile, int seat) {
+		int oldSeat = owners[tile];
+		if (oldSeat != NO_OWNER) {
+			ownership[oldSeat] &= ~(1L << tile);
+			portfolioVersions[oldSeat]++;
+			hash ^= Zobrist.key(Zobrist.OWNER, tile, oldSeat);
+		}
+		if (seat != NO_OWNER) {
+			ownership[seat] |= 1L << tile;
+			portfolioVersions[seat]++;
+			hash ^= Zobrist.key(Zobrist.OWNER, tile, seat);
+		}
+
+		owners[tile] = (byte) seat;
+		for (long rest = BoardLayout.setOf(tile); rest != 0; rest &= rest - 1)
+			updateRent(Long.numberOfTrailingZeros(rest));
+		if (observer != null)
+			observer.onOwnerChanged(tile, seat);
+	}
+
+	/**
+	 * @param seat A seat number, or NO_OWNER
+	 * @return The tiles owned by the seat as a bitmask (bit i = tile i); 0 for
+	 *         NO_OWNER
+	 */
+	public long getOwnershipMask(int seat) {
+		return seat == NO_OWNER ? 0 : ownership[seat];
+	}
+
+	/**
+	 * @param seat The seat number
+	 * @return A counter which changes whenever the seat's tiles or the houses on
+	 *         them change; anything computed from the seat's portfolio stays valid
+	 *         while it is unchanged
+	 */
+	public int getPortfolioVersion(int seat) {
+		return portfolioVersions[seat];
+	}
+
+	/**
+	 * Changes the seat's portfolio version without changing its portfolio, when
+	 * something which values the portfolio (such as the seat's strategy) changes
+	 *
+	 * @param seat The seat number
+	 */
+	public void invalidatePortfolio(int seat) {
+		portfolioVersions[seat]++;
+	}
+
+	/**
+	 * @param tile The tile index
+	 * @return The number of houses on the tile (5 = hotel)
+	 */
+	public int getHouses(int tile) {
+		return houses[tile];
+	}
+
+	/**
+	 * @param tile   The tile index
+	 * @param number The number of houses on the tile (5 = hotel)
+	 */
+	public void setHouses(int tile, int number) {
+		if (houses[tile] != 0)
+			hash ^= Zobrist.key(Zobrist.HOUSES, tile, houses[tile]);
+		if (number != 0)
+			hash ^= Zobrist.key(Zobrist.HOUSES, tile, number);
+		houses[tile] = (byte) number;
+		updateRent(tile);
+		if (owners[tile] != NO_OWNER)
+			portfolioVersions[owners[tile]]++;
+		if (observer != null)
+			observer.onHousesChanged(tile, number);
+	}
+
+	/**
+	 * @param tile The tile index
+	 * @return The rent of landing on the tile given its owner and houses; for a
+	 *         utility, the multiplier of the dice roll
+	 */
+	public int getRent(int tile) {
+		return rents[tile];
+	}
+
+	/**
+	 * Looks up the current rent of a tile in the rent table
+	 *
+	 * @param tile The tile index
+	 */
+	private void updateRent(int tile) {
+		rents[tile] = BoardLayout.rentOf(tile, getOwnershipMask(owners[tile]), houses[tile]);
+	}
+
+	/**
+	 * @param tile The tile index
+	 * @return True if the tile is mortgaged
+	 */
+	public boolean isMortgaged(int tile) {
+		return (mortgaged & (1L << tile)) != 0;
+	}
+
+	/**
+	 * @param tile  The tile index
+	 * @param value True if the tile is mortgaged
+	 */
+	public void setMortgaged(int tile, boolean value) {
+		if (value != isMortgaged(tile))
+			hash ^= Zobrist.key(Zobrist.MORTGAGED, tile, 0);
+		if (value)
+			mortgaged |= 1L << tile;
+		else
+			mortgaged &= ~(1L << tile);
+		if (observer != null)
+			observer.onMortgageChanged(tile, value);
+	}
+
+	/**
+	 * @param seat The seat number
+	 * @return The balance of the seat
+	 */
+	public int getBalance(int seat) {
+		return balances[seat];
+	}
+
+	/**
+	 * @param seat    The seat number
+	 * @param balance The new balance of the seat
+	 */
+	public void setBalance(int seat, int balance) {
+		int oldBucket = Math.floorDiv(balances[seat], Zobrist.BALANCE_BUCKET);
+		if (oldBucket != Math.floorDiv(balance, Zobrist.BALANCE_BUCKET))
+			hash ^= Zobrist.balanceKey(seat, balances[seat]) ^ Zobrist.balanceKey(seat, balance);
+		balances[seat] = balance;
+		if (observer != null)
+			observer.onBalanceChanged(seat, balance);
+	}
+
+	/**
+	 * @param seat The seat number
+	 * @return The board position of the seat
+	 */
+	public int getPosition(int seat) {
+		return positions[seat];
+	}
+
+	/**
+	 * @param seat     The seat number
+	 * @param position The new board position of the seat
+	 */
+	public void setPosition(int seat, int position) {
+		hash ^= Zobrist.key(Zobrist.POSITION, seat, positions[seat]) ^ Zobrist.key(Zobrist.POSITION, seat, position);
+		positions[seat] = (byte) position;
+		if (observer != null)
+			observer.onPositionChanged(seat, position);
+	}
+
+	/**
+	 * @param seat The seat number
+	 * @return True if the seat is in jail
+	 */
+	public boolean isInJail(int seat) {
+		return (jailed & (1 << seat)) != 0;
+	}
+
+	/**
+	 * @param seat  The seat number
+	 * @param value True if the seat is in jail
+	 */
+	public void setInJail(int seat, boolean value) {
+		if (value != isInJail(seat))
+			hash ^= Zobrist.key(Zobrist.IN_JAIL, seat, 0);
+		if (value)
+			jailed |= 1 << seat;
+		else
+			jailed &= ~(1 << seat);
+		if (observer != null)
+			observer.onInJailChanged(seat, value);
+	}
+
+	/**
+	 * @param seat The seat number
+	 * @return The number of turns the seat has spent in jail
+	 */
+	public int getTurnsInJail(int seat) {
+		return turnsInJail[seat];
+	}
+
+	/**
+	 * @param seat  The seat number
+	 * @param turns The number of turns the seat has spent in jail
+	 */
+	public void setTurnsInJail(int seat, int turns) {
+		if (turnsInJail[seat] != 0)
+			hash ^= Zobrist.key(Zobrist.TURNS_IN_JAIL, seat, turnsInJail[seat]);
+		if ((byte) turns != 0)
+			hash ^= Zobrist.key(Zobrist.TURNS_IN_JAIL, seat, (byte) turns);
+		turnsInJail[seat] = (byte) turns;
+		if (observer != null)
+			observer.onTurnsInJailChanged(seat, turns);
+	}
+
+	/**
+	 * @param seat The seat number
+	 * @return The number of get out of jail free cards held by the seat
+	 */
+	public int getGetOutOfJailCards(int seat) {
+		return getOutOfJailCards[seat];
+	}
+
+	/**
+	 * @param seat  The seat number
+	 * @param cards The number of get out of jail free cards held by the seat
+	 */
+	public void setGetOutOfJailCards(int seat, int cards) {
+		if (getOutOfJailCards[seat] != 0)
+			hash ^= Zobrist.key(Zobrist.JAIL_CARDS, seat, getOutOfJailCards[seat]);
+		if ((byte) cards != 0)
+			hash ^= Zobrist.key(Zobrist.JAIL_CARDS, seat, (byte) cards);
+		getOutOfJailCards[seat] = (byte) cards;
+		if (observer != null)
+			observer.onGetOutOfJailCardsChanged(seat, cards);
+	}
+
+	/**
+	 * @return The books of the money held by players and the Free Parking pool
+	 */
+	public BankLedger getLedger() {
+		return ledger;
+	}
+
+	/**
+	 * @return The observer told about every change to this state and every event
+	 *         of the game; null if there is none
+	 */
+	public GameObserver getObserver() {
+		return observer;
+	}
+
+	/**
+	 * @param observer The observer to tell about every change to this state and
+	 *                 every event of the game; null to stop observing
+	 */
+	public void setObserver(GameObserver observer) {
+		this.observer = observer;
+	}
+
+	/**
+	 * @return The sum of the last dice roll
+	 */
+	public int getLastDiceRoll() {
+		return lastDiceRoll;
+	}
+
+	/**
+	 * @param roll The sum of the last dice roll
+	 */
+	public void setLastDiceRoll(int roll) {
+		lastDiceRoll = roll;
+	}
+}
@@ -1,12 +1,15 @@
 package org.virajshah.monopoly.core;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 
+import org.virajshah.monopoly.analysis.ConfidenceInterval;
 import org.virajshah.monopoly.logs.Logger;
 import org.virajshah.monopoly.tiles.OwnableTile;
 import org.virajshah.monopoly.tiles.Tile;
-import org.virajshah.monopoly.tiles.UtilityTile;
 
 /**
  * The MonopolyGame class is responsible for handling all functions of an
@@ -21,13 +24,18 @@ public class MonopolyGame {
 	private Tile[] board;
 
 	/**
-	 * An ArrayList containing all the players in the current game
+	 * The compact state of this game, which the board and players read and write
 	 */
-	private ArrayList<Player> players;
+	private final GameState state;
 
 	/**
-	 * A pointer to an element in MonopolyGame.players; a symbol for who's turn it
-	 * is next
+	 * All the players of the current game, in seat order. Bankrupt players stay
+	 * in the list; the active seat mask of the state says who is still playing.
+	 */
+	private final List<Player> players;
+
+	/**
+	 * The seat of the player whose turn it is, or -1 before the first turn
 	 */
 	private int currentPlayer;
 
@@ -35,11 +43,32 @@ public class MonopolyGame {
 	 * A counter for the number of turns played
 	 */
 	private int turnsPlayed;
-	
+
+	/**
+	 * The next phase of the turn being played; END between turns
+	 */
+	private TurnPhase phase;
+
 	/**
-	 * The logger tool for this monopoly game
+	 * The player whose turn is being played (who may go bankrupt during the turn)
 	 */
-	private Logger logger = new Logger(true);
+	private Player turnPlayer;
+
+	/**
+	 * The random stream, decks, logger and termination signal of this game
+	 */
+	private final GameContext context;
+
+	/**
+	 * Matches trades between the players of this game
+	 */
+	private final TradeMatcher tradeMatcher;
+
+	/**
+	 * Estimates chanceOfWinning, caching the estimate of every position; null
+	 * until first asked
+	 */
+	private WinProbabilityEstimator estimator;
 
 	/**
 	 * The maximum turns allowed to be played during a game
@@ -47,19 +76,114 @@ public class MonopolyGame {
 	private static final int MAX_TURNS_ALLOWED = 10000;
 
 	/**
-	 * Initializes a new monopoly game with a new board, and four players.
+	 * The number of positions whose chanceOfWinning estimates are cached
+	 */
+	private static final int ESTIMATE_CACHE_SIZE = 256;
+
+	/**
+	 * The names of the players, in seat order
+	 */
+	private static final String[] SEAT_NAMES = { "North", "East", "South", "West" };
+
+	/**
+	 * Initializes a new monopoly game with a new board, four players and a random
+	 * seed.
 	 */
 	public MonopolyGame() {
-		board = Tile.buildBoard();
+		this(new SplittableRandom().nextLong());
+	}
 
-		players = new ArrayList<>();
-		players.add(new Player("North", this));
-		players.add(new Player("East", this));
-		players.add(new Player("South", this));
-		players.add(new Player("West", this));
+	/**
+	 * Initializes a reproducible monopoly game which is one of many games played
+	 * from the same master seed. Each game index gets its own independent random
+	 * number stream.
+	 *
+	 * @param masterSeed The seed shared by every game in the batch
+	 * @param gameIndex  The index of this game within the batch
+	 */
+	public MonopolyGame(long masterSeed, long gameIndex) {
+		this(seedFor(masterSeed, gameIndex));
+	}
+
+	/**
+	 * Initializes a reproducible monopoly game with a new board, and four players.
+	 *
+	 * @param seed The seed of the game's random number stream
+	 */
+	public MonopolyGame(long seed) {
+		context = new GameContext(seed);
+
+		state = new GameState(SEAT_NAMES.length);
+		board = Tile.buildBoard(state);
+		tradeMatcher = new TradeMatcher(state);
+
+		ArrayList<Player> seated = new ArrayList<>();
+		for (int seat = 0; seat < SEAT_NAMES.length; seat++)
+			seated.add(new Player(SEAT_NAMES[seat], this, seat));
+		players = Collections.unmodifiableList(seated);
 
 		currentPlayer = -1;
 		turnsPlayed = 0;
+		phase = TurnPhase.END;
+	}
+
+	/**
+	 * Copies a running game into an independent fork
+	 *
+	 * @param source The game to copy
+	 * @param seed   The seed of the fork's random number stream
+	 */
+	private MonopolyGame(MonopolyGame source, long seed) {
+		context = new GameContext(source.context, seed);
+
+		state = new GameState(source.state);
+		board = Tile.buildBoard(state);
+		tradeMatcher = new TradeMatcher(state);
+
+		ArrayList<Player> seated = new ArrayList<>(source.players.size());
+		for (Player player : source.players)
+			seated.add(new Player(player, this));
+		players = Collections.unmodifiableList(seated);
+
+		currentPlayer = source.currentPlayer;
+		turnsPlayed = source.turnsPlayed;
+		phase = source.phase;
+		turnPlayer = source.turnPlayer != null ? players.get(source.turnPlayer.getSeat()) : null;
+	}
+
+	/**
+	 * Forks this game: the fork starts exactly where this game is, even part way
+	 * through a turn, and carries on with its own random stream. Board, players,
+	 * balances, the Free Parking pool, jail, the decks and the strategies are all
+	 * copied; only immutable data (cards, the board layout, strategies) is shared,
+	 * so forks can be played on different threads while this game carries on.
+	 * Observers are not copied.
+	 *
+	 * Forking only reads this game, but must not run while this game is being
+	 * played on another thread.
+	 *
+	 * @param seed The seed of the fork's random number stream (such as
+	 *             seedFor(masterSeed, rollout))
+	 * @return The fork
+	 */
+	public MonopolyGame fork(long seed) {
+		return new MonopolyGame(this, seed);
+	}
+
+	/**
+	 * Derives the seed of a single game from a master seed and the index of the
+	 * game (SplitMix64 finalizer), so that neighbouring game indices get unrelated
+	 * streams.
+	 *
+	 * @param masterSeed The seed shared by every game in the batch
+	 * @param gameIndex  The index of the game within the batch
+	 * @return The seed of the game's random number stream
+	 */
+	public static long seedFor(long masterSeed, long gameIndex) {
+		long z = masterSeed + (gameIndex + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
 	}
 
 	/**
@@ -68,71 +192,195 @@ public class MonopolyGame {
 	 * @return True if the game is still in a playable state, false otherwise
 	 */
 	public boolean isRunning() {
-		return turnsPlayed < MAX_TURNS_ALLOWED && players.size() > 1;
+		return !context.isTerminated() && turnsPlayed < MAX_TURNS_ALLOWED
+				&& Integer.bitCount(state.getActiveSeats()) > 1;
 	}
 
 	/**
-	 * Chance the current player to the next player which is still in the game
+	 * Chance the current player to the next player which is still in the game:
+	 * the lowest active seat after the current one, wrapping around to the lowest
+	 * active seat overall
 	 */
 	public void nextPlayer() {
-		currentPlayer++;
+		int active = state.getActiveSeats();
+		if (active == 0) {
+			context.terminate("Every player is now bankrupt.");
+			return;
+		}
 
-		if (currentPlayer >= players.size())
-			currentPlayer = 0;
+		int later = active & (-1 << (currentPlayer + 1));
+		currentPlayer = Integer.numberOfTrailingZeros(later != 0 ? later : active);
+	}
 
-		try {
-			if (players.get(currentPlayer).isBankrupt())
-				nextPlayer();
-		} catch (StackOverflowError e) {
-			logger.error("Every player is now bankrupt.");
-			System.exit(0);
-		}
+	/**
+	 * @return The number of turns played so far
+	 */
+	public int getTurnsPlayed() {
+		return turnsPlayed;
+	}
+
+	/**
+	 * @return The seat of the player whose turn it is (or who played the last
+	 *         turn), or -1 before the first turn
+	 */
+	public int getCurrentSeat() {
+		return currentPlayer;
+	}
+
+	/**
+	 * @return True if the game was stopped by the turn limit rather than by
+	 *         bankruptcies
+	 */
+	public boolean reachedTurnLimit() {
+		return turnsPlayed >= MAX_TURNS_ALLOWED;
+	}
+
+	/**
+	 * @return The seat of the last player left in the game; GameState.NO_OWNER if
+	 *         the game ended (or is still running) with more than one player
+	 */
+	public int getWinnerSeat() {
+		int active = state.getActiveSeats();
+		return Integer.bitCount(active) == 1 ? Integer.numberOfTrailingZeros(active) : GameState.NO_OWNER;
 	}
 
 	/**
 	 * Calls upon a player to play their turn
 	 */
 	public void playTurn() {
+		beginTurn();
+		while (phase != TurnPhase.END)
+			phase = turnPlayer.step(phase);
+	}
+
+	/**
+	 * Counts a new turn for the current player and readies its first phase
+	 */
+	private void beginTurn() {
 		turnsPlayed++;
+		phase = TurnPhase.END;
+
+		if (turnsPlayed < MAX_TURNS_ALLOWED && !context.isTerminated()) {
+			turnPlayer = players.get(currentPlayer);
+			if (state.getObserver() != null)
+				state.getObserver().onTurnStart(turnsPlayed, turnPlayer.getSeat());
+			phase = TurnPhase.ROLL;
+		}
+	}
+
+	/**
+	 * Plays the game one phase at a time. Between turns, a step moves on to the
+	 * next player and starts their turn; otherwise it plays the next phase of the
+	 * turn in progress. Repeating step() until isRunning() is false plays the same
+	 * game as alternating nextPlayer() and playTurn().
+	 *
+	 * @return The next phase to be played; END if the turn is over (or the game is
+	 *         no longer running)
+	 */
+	public TurnPhase step() {
+		if (phase == TurnPhase.END) {
+			if (!isRunning())
+				return phase;
+
+			nextPlayer();
+			if (context.isTerminated())
+				return phase;
 
-		if (turnsPlayed < MAX_TURNS_ALLOWED) {
-			players.get(currentPlayer).playTurn();
+			beginTurn();
+			return phase;
 		}
+
+		phase = turnPlayer.step(phase);
+		return phase;
+	}
+
+	/**
+	 * @return The next phase of the turn being played; END between turns
+	 */
+	public TurnPhase getPhase() {
+		return phase;
+	}
+
+	/**
+	 * Brings the players, the ledger and the turn counter back in line with a
+	 * state whose arrays were written directly, such as one rebuilt from a game
+	 * journal. Bankrupt seats leave the game and every player's assets are
+	 * relisted from the ownership masks. The random stream and the decks are not
+	 * restored.
+	 *
+	 * @param turn          The number of turns played in the restored state
+	 * @param seat          The seat of the player who played the last turn
+	 * @param bankruptSeats Bit i is set if seat i has gone bankrupt
+	 */
+	public void resumeAt(int turn, int seat, int bankruptSeats) {
+		for (int rest = bankruptSeats; rest != 0; rest &= rest - 1)
+			state.deactivate(Integer.numberOfTrailingZeros(rest));
+		state.getLedger().recount();
+		for (Player player : players)
+			player.syncAssets();
+
+		// The next turn goes to the first active seat after this one
+		currentPlayer = seat;
+		turnsPlayed = turn;
 	}
 
 	/**
-	 * Returns the percentage chance of a player winning, based on their assets and
-	 * balance
+	 * Returns the chance of a player winning from the current position, estimated
+	 * by playing rollouts of this game (see WinProbabilityEstimator). The rollouts
+	 * are seeded from this game's seed and turn, so asking twice at the same point
+	 * gives the same answer. Estimates are cached by position, so a position which
+	 * comes up again (common in long endgames) is not played out again.
 	 * 
 	 * @param player The player to measure percent chance of winning
-	 * @return The percent change of a the player winning
+	 * @return The chance of the player winning, between 0 and 1
 	 */
 	public double chanceOfWinning(Player player) {
-		int capitalization = 0;
-		int playersValue = 0;
-		int currValue;
-		for (Player p : getPlayers()) {
-			TradeBroker currBroker = new TradeBroker(p);
-			currValue = 0;
-			for (OwnableTile asset : p.getAssets())
-				currValue += currBroker.valueToClient(asset);
-
-			capitalization += currValue;
-
-			if (player == p)
-				playersValue = currValue;
-		}
-		return capitalization != 0 ? (double) playersValue / capitalization : 0;
+		if (player.isBankrupt())
+			return 0;
+
+		if (estimator == null)
+			estimator = new WinProbabilityEstimator(ForkJoinPool.commonPool(),
+					WinProbabilityEstimator.DEFAULT_MIN_ROLLOUTS, WinProbabilityEstimator.DEFAULT_MAX_ROLLOUTS,
+					WinProbabilityEstimator.DEFAULT_HORIZON, ConfidenceInterval.Z_95,
+					new TranspositionCache<>(ESTIMATE_CACHE_SIZE));
 
+		return estimator.estimate(this, seedFor(getSeed(), turnsPlayed)).getProbability(player.getSeat())
+				.getEstimate();
+	}
+
+	/**
+	 * @return The hash of the current position: the state's Zobrist hash (see
+	 *         GameState.getHash), combined with whose turn it is, the phase of
+	 *         the turn and the strategy of every seat. Positions with equal
+	 *         hashes play out alike (within a balance bucket), whatever the turn
+	 *         number, so evaluations can be cached by this hash.
+	 */
+	public long getPositionHash() {
+		long hash = state.getHash() ^ Zobrist.key(Zobrist.TO_MOVE, currentPlayer, phase.ordinal());
+		for (Player player : players)
+			hash ^= Zobrist.key(Zobrist.STRATEGY, player.getSeat(), player.getStrategy().hashCode());
+		return hash;
 	}
 
 	/**
-	 * @return The players in the current game
+	 * @return Every player of the current game in seat order, bankrupt or not
+	 *         (the list cannot be modified)
 	 */
 	public List<Player> getPlayers() {
 		return players;
 	}
 
+	/**
+	 * @return The players still in the current game, in seat order
+	 */
+	public List<Player> getActivePlayers() {
+		ArrayList<Player> active = new ArrayList<>(Integer.bitCount(state.getActiveSeats()));
+		for (Player player : players)
+			if (!player.isBankrupt())
+				active.add(player);
+		return active;
+	}
+
 	/**
 	 * Get the game tile (Tile) at the specified index
 	 *
@@ -151,9 +399,14 @@ public class MonopolyGame {
 	 * @param roll  The dice roll
 	 */
 	public void payRent(Player payer, OwnableTile tile, int roll) {
-		if (tile.getType() == Tile.TileType.UTILITY)
-			((UtilityTile) tile).setLastDiceRoll(roll);
-		payer.payTo(tile.getOwner(), tile.getRent());
+		int rent = state.getRent(tile.getIndex());
+		if (tile.getType() == Tile.TileType.UTILITY) {
+			state.setLastDiceRoll(roll);
+			rent *= roll;
+		}
+		if (state.getObserver() != null)
+			state.getObserver().onRent(payer.getSeat(), tile.getOwner().getSeat(), tile.getIndex(), rent);
+		payer.payTo(tile.getOwner(), rent);
 	}
 
 	/**
@@ -164,19 +417,50 @@ public class MonopolyGame {
 	 */
 	public void payRent(Player payer, OwnableTile tile) {
 		if (tile.getType() == Tile.TileType.PROPERTY || tile.getType() == Tile.TileType.RAILROAD) {
-
-			payer.deductBalance(tile.getRent());
-			tile.getOwner().addBalance(tile.getRent());
+			int rent = state.getRent(tile.getIndex());
+			if (state.getObserver() != null)
+				state.getObserver().onRent(payer.getSeat(), tile.getOwner().getSeat(), tile.getIndex(), rent);
+			payer.deductBalance(rent);
+			tile.getOwner().addBalance(rent);
 		} else {
-			logger.error("Logic Error: Paying rent on non-ownable property");
+			context.getLogger().error("Logic Error: Paying rent on non-ownable property");
 		}
 	}
 	
+	/**
+	 * @return The trade matcher of this game
+	 */
+	TradeMatcher getTradeMatcher() {
+		return tradeMatcher;
+	}
+
+	/**
+	 * @return The compact state of this game
+	 */
+	public GameState getState() {
+		return state;
+	}
+
+	/**
+	 * @return The seed of this game's random number stream
+	 */
+	public long getSeed() {
+		return context.getSeed();
+	}
+
+	/**
+	 * @return The random stream, decks, logger and termination signal of this
+	 *         game
+	 */
+	public GameContext getContext() {
+		return context;
+	}
+
 	/**
 	 * 
 	 * @return The logger associated with the monopoly game
 	 */
 	public Logger getLogger() {
-		return logger;
+		return context.getLogger();
 	}
 }
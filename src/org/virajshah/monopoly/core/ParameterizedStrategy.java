@@ -0,0 +1,214 @@
+package org.virajshah.monopoly.core;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Arrays;
+
+import org.virajshah.monopoly.tiles.OwnableTile;
+import org.virajshah.monopoly.tiles.PropertyTile;
+import org.virajshah.monopoly.tiles.Tile;
+
+/**
+ * A strategy whose rules are those of DefaultStrategy, with every threshold and
+ * multiplier taken from a set of parameters. Instances are immutable; with()
+ * derives a strategy which differs in a single parameter.
+ *
+ * @author Viraj Shah
+ */
+public class ParameterizedStrategy implements Strategy {
+	/**
+	 * The tunable parameters, with the values used by DefaultStrategy
+	 */
+	public enum Parameter {
+		/**
+		 * Build while a house costs less than this share of the balance
+		 */
+		BUILD_FRACTION(0.25),
+
+		/**
+		 * The interest paid on top of half the price to lift a mortgage
+		 */
+		UNMORTGAGE_INTEREST(1.1),
+
+		/**
+		 * Lift a mortgage while it costs less than this share of the balance
+		 */
+		UNMORTGAGE_FRACTION(0.25),
+
+		/**
+		 * The least cash kept after paying for a trade
+		 */
+		CASH_FLOOR(300),
+
+		/**
+		 * The base value of a tile, before it is scaled by the multipliers
+		 */
+		BASE_VALUE(200),
+
+		/**
+		 * Scales the value of a tile whose whole set is owned
+		 */
+		MONOPOLY_MULTIPLIER(2),
+
+		/**
+		 * Scales the value of a property (railroads and utilities are not scaled)
+		 */
+		PROPERTY_MULTIPLIER(1.33);
+
+		/**
+		 * The value used by DefaultStrategy
+		 */
+		private final double standard;
+
+		Parameter(double standard) {
+			this.standard = standard;
+		}
+
+		/**
+		 * @return The value used by DefaultStrategy
+		 */
+		public double getStandard() {
+			return standard;
+		}
+	}
+
+	/**
+	 * The value of every parameter, at [parameter.ordinal()]
+	 */
+	private final double[] values;
+
+	// Parameters read on every decision
+	private final double buildFraction;
+	private final double unmortgageInterest;
+	private final double unmortgageFraction;
+	private final int cashFloor;
+	private final double baseValue;
+	private final double monopolyMultiplier;
+	private final double propertyMultiplier;
+
+	/**
+	 * Constructs a strategy with the standard value of every parameter
+	 */
+	public ParameterizedStrategy() {
+		this(standardValues());
+	}
+
+	/**
+	 * Constructs a strategy
+	 *
+	 * @param values The value of every parameter, at [parameter.ordinal()]
+	 */
+	private ParameterizedStrategy(double[] values) {
+		this.values = values;
+		buildFraction = get(Parameter.BUILD_FRACTION);
+		unmortgageInterest = get(Parameter.UNMORTGAGE_INTEREST);
+		unmortgageFraction = get(Parameter.UNMORTGAGE_FRACTION);
+		cashFloor = (int) get(Parameter.CASH_FLOOR);
+		baseValue = get(Parameter.BASE_VALUE);
+		monopolyMultiplier = get(Parameter.MONOPOLY_MULTIPLIER);
+		propertyMultiplier = get(Parameter.PROPERTY_MULTIPLIER);
+	}
+
+	private static double[] standardValues() {
+		Parameter[] parameters = Parameter.values();
+		double[] standard = new double[parameters.length];
+		for (Parameter parameter : parameters)
+			standard[parameter.ordinal()] = parameter.getStandard();
+		return standard;
+	}
+
+	/**
+	 * @param parameter A parameter
+	 * @param value     The new value of the parameter
+	 * @return A strategy with the same parameters as this one, except for the
+	 *         one given
+	 */
+	public ParameterizedStrategy with(Parameter parameter, double value) {
+		double[] changed = values.clone();
+		changed[parameter.ordinal()] = value;
+		return new ParameterizedStrategy(changed);
+	}
+
+	/**
+	 * @param parameter A parameter
+	 * @return The value of the parameter
+	 */
+	public double get(Parameter parameter) {
+		return values[parameter.ordinal()];
+	}
+
+	@Override
+	public boolean shouldBuy(Player player, OwnableTile tile) {
+		return true;
+	}
+
+	@Override
+	public boolean shouldBuildHouse(Player player, PropertyTile property) {
+		return property.getHousePrice() < buildFraction * player.getBalance();
+	}
+
+	@Override
+	public boolean shouldUnmortgage(Player player, OwnableTile tile) {
+		return ((double) tile.getPropertyValue() / 2) * unmortgageInterest < unmortgageFraction * player.getBalance();
+	}
+
+	@Override
+	public boolean shouldMortgage(Player player, OwnableTile tile, int amountDue) {
+		return amountDue > player.getBalance();
+	}
+
+	@Override
+	public int getCashFloor(Player player) {
+		return cashFloor;
+	}
+
+	@Override
+	public int valueTile(Player player, OwnableTile tile, double setCompletion) {
+		double value = baseValue;
+
+		if (setCompletion == 1) {
+			value *= monopolyMultiplier;
+		} else if (setCompletion >= 0.5) {
+			value *= 1 + setCompletion;
+		}
+
+		if (tile.getType() == Tile.TileType.PROPERTY) {
+			value *= propertyMultiplier;
+
+			if (setCompletion == 1) {
+				PropertyTile property = (PropertyTile) tile;
+				if (property.getNumberOfHouses() > 0) {
+					value *= property.getNumberOfHouses();
+				}
+			}
+		}
+
+		return (int) value + tile.getPropertyValue();
+	}
+
+	/**
+	 * @return The parameters which differ from the standard ones (to 7 significant
+	 *         digits), such as "BUILD_FRACTION=0.3 CASH_FLOOR=500"; "standard" if
+	 *         none do
+	 */
+	@Override
+	public String getName() {
+		StringBuilder name = new StringBuilder();
+		for (Parameter parameter : Parameter.values())
+			if (get(parameter) != parameter.getStandard())
+				name.append(name.length() > 0 ? " " : "").append(parameter).append('=')
+						.append(new BigDecimal(get(parameter)).round(MathContext.DECIMAL32).stripTrailingZeros()
+								.toPlainString());
+		return name.length() > 0 ? name.toString() : "standard";
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof ParameterizedStrategy && Arrays.equals(values, ((ParameterizedStrategy) other).values);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(values);
+	}
+}
@@ -31,62 +31,141 @@ public class Player {
 	private String name;
 
 	/**
-	 * A pointer to MonopolyGame.board which is symbolic for the players position on
-	 * the game board
+	 * The seat of this player; the index of this player's position, balance and
+	 * jail status in the game state
 	 */
-	private int position;
+	private final int seat;
 
 	/**
-	 * The amount of money which belongs to this player
+	 * The state of the game which the player belongs to
 	 */
-	private int balance;
+	private final GameState state;
 
 	/**
-	 * The number of get out of jail free cards which belong to this player
+	 * An ArrayList of all the assets (Tiles) owned by a player
 	 */
-	private int getOutOfJailCards;
+	private ArrayList<OwnableTile> assets;
 
 	/**
-	 * The number of turns a player has spent in jail
+	 * The game which the player belongs to
 	 */
-	private int turnsInJail;
+	private MonopolyGame game;
 
 	/**
-	 * An ArrayList of all the assets (Tiles) owned by a player
+	 * The logger object associated with the current game
 	 */
-	private ArrayList<OwnableTile> assets;
+	private Logger logger;
 
 	/**
-	 * The game which the player belongs to
+	 * The broker which values this player's assets and builds their trades
 	 */
-	private MonopolyGame game;
+	private final TradeBroker broker;
 
 	/**
-	 * True if the player is in jail; false otherwise
+	 * The strategy which makes this player's buying, building, mortgage and
+	 * trading decisions
 	 */
-	private boolean inJail;
+	private Strategy strategy;
 
 	/**
-	 * The logger object associated with the current game
+	 * The last dice outcome rolled in the turn being played (see Dice)
 	 */
-	private Logger logger;
+	private int roll;
+
+	/**
+	 * The tile the dice moved this player to in the turn being played
+	 */
+	private int landedTile;
+
+	/**
+	 * The number of rolls in the turn being played whose mortgages have not been
+	 * lifted yet
+	 */
+	private int pendingUnmortgages;
 
 	/**
 	 * Create a new Player and attach it to a monopoly game.
 	 *
 	 * @param name     The name of the new player
 	 * @param thisGame Game to which the player should be attached to
+	 * @param seat     The seat of the player in the game state
 	 */
-	public Player(String name, MonopolyGame thisGame) {
+	public Player(String name, MonopolyGame thisGame, int seat) {
 		this.name = name;
-		position = 0;
-		balance = 1500;
+		this.seat = seat;
 		assets = new ArrayList<>();
 		game = thisGame;
-		getOutOfJailCards = 0;
-		inJail = false;
-		turnsInJail = 0;
+		state = thisGame.getState();
 		logger = thisGame.getLogger();
+		state.seatPlayer(seat, this);
+		strategy = DefaultStrategy.INSTANCE;
+		broker = new TradeBroker(this);
+	}
+
+	/**
+	 * Copies a player into a fork of their game, with the same strategy, the same
+	 * assets in the same order and the same progress through the current turn
+	 *
+	 * @param source The player to copy
+	 * @param fork   The fork of the player's game, whose state is already copied
+	 */
+	Player(Player source, MonopolyGame fork) {
+		name = source.name;
+		seat = source.seat;
+		game = fork;
+		state = fork.getState();
+		logger = fork.getLogger();
+		strategy = source.strategy;
+		roll = source.roll;
+		landedTile = source.landedTile;
+		pendingUnmortgages = source.pendingUnmortgages;
+
+		assets = new ArrayList<>(source.assets.size());
+		for (OwnableTile asset : source.assets)
+			assets.add((OwnableTile) fork.tileAt(asset.getIndex()));
+
+		state.seatPlayer(seat, this);
+		broker = new TradeBroker(this);
+	}
+
+	/**
+	 * @return The strategy which makes this player's decisions
+	 */
+	public Strategy getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * Changes this player's strategy; valuations cached under the old strategy,
+	 * and trades it turned down, are reconsidered
+	 *
+	 * @param strategy The strategy which makes this player's decisions
+	 */
+	public void setStrategy(Strategy strategy) {
+		this.strategy = strategy;
+		state.invalidatePortfolio(seat);
+	}
+
+	/**
+	 * @return The broker which values this player's assets and builds their
+	 *         trades
+	 */
+	public TradeBroker getBroker() {
+		return broker;
+	}
+
+	/**
+	 * @return The seat of this player in the game state
+	 */
+	public int getSeat() {
+		return seat;
+	}
+
+	/**
+	 * @return The name of this player
+	 */
+	public String getName() {
+		return name;
 	}
 
 	/**
@@ -102,7 +181,7 @@ public class Player {
 	 * Add a get out of jail free card to the players possession.
 	 */
 	public void addGetOutOfJailCard() {
-		getOutOfJailCards++;
+		state.setGetOutOfJailCards(seat, state.getGetOutOfJailCards(seat) + 1);
 	}
 
 	/**
@@ -111,7 +190,7 @@ public class Player {
 	 * @return The number of get out of jail free cards.
 	 */
 	public int getNumberOfGetOutOfJailCards() {
-		return getOutOfJailCards;
+		return state.getGetOutOfJailCards(seat);
 	}
 
 	/**
@@ -120,7 +199,7 @@ public class Player {
 	 * @return The position of the player.
 	 */
 	public int getPosition() {
-		return position;
+		return state.getPosition(seat);
 	}
 
 	/**
@@ -129,7 +208,7 @@ public class Player {
 	 * @param position The position on the game board.
 	 */
 	public void setPosition(int position) {
-		this.position = position;
+		state.setPosition(seat, position);
 	}
 
 	/**
@@ -138,14 +217,14 @@ public class Player {
 	 * @return The balance of this player.
 	 */
 	public int getBalance() {
-		return balance;
+		return state.getBalance(seat);
 	}
 
 	/**
 	 * Send this player to the jail.
 	 */
 	public void goToJail() {
-		inJail = true;
+		state.setInJail(seat, true);
 		setPosition(10);
 	}
 
@@ -155,7 +234,7 @@ public class Player {
 	 * @return true if the player is in jail; false otherwise.
 	 */
 	public boolean isInJail() {
-		return inJail;
+		return state.isInJail(seat);
 	}
 
 	/**
@@ -167,6 +246,13 @@ public class Player {
 		return assets != null ? assets : new ArrayList<>();
 	}
 
+	/**
+	 * @return The tiles owned by this player as a bitmask (bit i = tile i)
+	 */
+	public long getOwnershipMask() {
+		return state.getOwnershipMask(seat);
+	}
+
 	/**
 	 * Add an asset to the player's list of assets
 	 *
@@ -239,38 +325,47 @@ public class Player {
 	}
 
 	private void purchaseOrPayRent(int diceRoll) {
-		Tile currTile = game.tileAt(position);
+		Tile currTile = game.tileAt(getPosition());
 		if (currTile.getType() == TileType.PROPERTY || currTile.getType() == TileType.RAILROAD
 				|| currTile.getType() == TileType.UTILITY) {
 			OwnableTile tile = (OwnableTile) currTile;
 
 			if (!tile.isOwned()) {
-				tile.buy(this);
-				logger.info(String.format(IS_PURCHASING, name, currTile.getName()));
+				if (strategy.shouldBuy(this, tile)) {
+					tile.buy(this);
+					if (state.getObserver() != null)
+						state.getObserver().onPurchase(seat, tile.getIndex());
+					logger.info(IS_PURCHASING, name, currTile.getName());
+				}
 			} else if (tile.getOwner() != this) {
 				game.payRent(this, tile, diceRoll);
-				logger.info(String.format(PAYING_RENT_TO, name, tile.getOwner(), tile.getName()));
+				logger.info(PAYING_RENT_TO, name, tile.getOwner().getName(), tile.getName());
 			}
 		}
 	}
 
 	private void pickupCardIfRequired(int diceRoll) {
-		Tile currTile = game.tileAt(position);
-		int currPos = position;
+		int currPos = getPosition();
+		Tile currTile = game.tileAt(currPos);
 		if (currTile.getType() == TileType.CHANCE) {
-			Card chanceCard = Card.pickRandomCard(Card.chanceDeck);
+			Card chanceCard = game.getContext().drawChanceCard();
+			if (state.getObserver() != null)
+				state.getObserver().onCardDrawn(seat, currPos, chanceCard);
 			chanceCard.pickup(this);
-			if (currPos != position)
+			if (currPos != getPosition())
 				purchaseOrPayRent(diceRoll);
 		} else if (currTile.getType() == TileType.COMMUNITY_CHEST) {
-			Card ccCard = Card.pickRandomCard(Card.communityChestDeck);
+			Card ccCard = game.getContext().drawCommunityChestCard();
+			if (state.getObserver() != null)
+				state.getObserver().onCardDrawn(seat, currPos, ccCard);
 			ccCard.pickup(this);
-			if (currPos != position)
+			if (currPos != getPosition())
 				purchaseOrPayRent(diceRoll);
 		}
 	}
 
 	private void payTaxes() {
+		int position = getPosition();
 		if (game.tileAt(position).getType() == TileType.TAX) {
 			if (position == 4) {
 				deductBalance(200);
@@ -289,9 +384,9 @@ public class Player {
 			if (asset.getType() == TileType.PROPERTY) {
 				PropertyTile property = (PropertyTile) asset;
 
-				while (property.getHousePrice() < 0.25 * balance && !property.hasHotel() && property.allowedToBuild()) {
+				while (!property.hasHotel() && property.allowedToBuild() && strategy.shouldBuildHouse(this, property)) {
 					property.buyHouse();
-					logger.info(String.format("%s bought a house on %s", name, property.getName()));
+					logger.info("%s bought a house on %s", name, property.getName());
 				}
 			}
 		}
@@ -302,27 +397,27 @@ public class Player {
 		broker.sortAssetsByWorth();
 
 		for (int i = assets.size() - 1; i >= 0; i--) {
-			// If un-mortgage amount is less than a quarter of balance
-			if (((double) assets.get(i).getPropertyValue() / 2) * 1.1 < 0.25 * balance) {
+			if (strategy.shouldUnmortgage(this, assets.get(i))) {
 				assets.get(i).unmortgage();
-				logger.info(String.format("%s unmortgaged %s", name, assets.get(i).getName()));
+				logger.info("%s unmortgaged %s", name, assets.get(i).getName());
 			}
 		}
 	}
 
-	private boolean checkJailStatus(int roll1, int roll2) {
-		if (inJail) {
-			turnsInJail++;
-			logger.info(String.format("%s is in jail. Time spent: %d turns", name, turnsInJail + 1));
+	private boolean checkJailStatus(boolean rolledDoubles) {
+		if (isInJail()) {
+			int turnsInJail = state.getTurnsInJail(seat) + 1;
+			state.setTurnsInJail(seat, turnsInJail);
+			logger.info("%s is in jail. Time spent: %d turns", name, turnsInJail + 1);
 
-			if (roll1 == roll2) {
-				inJail = false;
-				turnsInJail = 0;
+			if (rolledDoubles) {
+				state.setInJail(seat, false);
+				state.setTurnsInJail(seat, 0);
 				logger.info("\t Rolled doubles... breaking out of jail.");
 				return false;
 			} else if (turnsInJail == 4) {
-				inJail = false;
-				turnsInJail = 0;
+				state.setInJail(seat, false);
+				state.setTurnsInJail(seat, 0);
 				logger.info("\t Sentence served.");
 				return false;
 			} else {
@@ -339,64 +434,122 @@ public class Player {
 	 * playing a turn.
 	 */
 	public void playTurn() {
-		if (isBankrupt())
-			return;
+		TurnPhase phase = TurnPhase.ROLL;
+		while (phase != TurnPhase.END)
+			phase = step(phase);
+	}
 
-		logger.info(String.format("Beginning %s's turn", name));
+	/**
+	 * Plays one phase of this player's turn. Rolling doubles loops from BUILD back
+	 * to ROLL; the mortgages of every roll are lifted together once the last roll
+	 * has been played.
+	 *
+	 * @param phase The phase to play
+	 * @return The next phase to play; END once the turn is over
+	 */
+	TurnPhase step(TurnPhase phase) {
+		switch (phase) {
+		case ROLL:
+			if (isBankrupt())
+				return TurnPhase.UNMORTGAGE;
 
-		TradeBroker broker = new TradeBroker(this);
-		int[] roll = Dice.roll2();
-		int moveAmount = roll[0] + roll[1];
+			logger.info("Beginning %s's turn", name);
 
-		logger.info(String.format("%s rolled a %d and a %d. Moving %d spaces.", name, roll[0], roll[1], moveAmount));
+			pendingUnmortgages++;
+			roll = game.getContext().getDice().roll2();
 
-		if (checkJailStatus(roll[0], roll[1]))
-			return;
+			if (state.getObserver() != null)
+				state.getObserver().onRoll(seat, Dice.first(roll), Dice.second(roll));
 
-		position += moveAmount;
+			logger.info("%s rolled a %d and a %d. Moving %d spaces.", name, Dice.first(roll), Dice.second(roll),
+					Dice.total(roll));
+			return TurnPhase.JAIL_CHECK;
 
-		if (position > 39) {
-			position -= 40;
-			addBalance(200);
-			logger.info(String.format("%s passed Go. Collecting $200", name));
-		}
+		case JAIL_CHECK:
+			if (checkJailStatus(Dice.isDoubles(roll))) {
+				// Still in jail: this roll ends without lifting mortgages
+				pendingUnmortgages--;
+				return TurnPhase.UNMORTGAGE;
+			}
+			return TurnPhase.MOVE;
 
-		Tile currTile = game.tileAt(position);
-		logger.info(String.format("%s moved to %s.", name, currTile.getName()));
-		purchaseOrPayRent(moveAmount);
-		pickupCardIfRequired(moveAmount);
-		payTaxes();
-
-		if (currTile.getType() == TileType.GO_TO_JAIL) {
-			setPosition(10);
-			goToJail();
-			logger.info(String.format("%s got sent to jail.", name));
-		} else if (currTile.getType() == TileType.FREE_PARKING) {
-			int poolSize = ((FreeParkingTile) currTile).getPoolAmount();
-			this.addBalance(poolSize);
-			((FreeParkingTile) currTile).clearPool();
-			logger.info(String.format("%s landed on free parking.", name));
-		}
+		case MOVE:
+			int from = getPosition();
+			int position = from + Dice.total(roll);
 
-		if (!isBankrupt())
-			for (Player p : game.getPlayers())
-				while (broker.buildBestTradeOffer(p))
-					;
+			if (position > 39) {
+				position -= 40;
+				addBalance(200);
+				logger.info("%s passed Go. Collecting $200", name);
+			}
 
-		autoBuyHouses(broker);
+			setPosition(position);
+			landedTile = position;
+			if (state.getObserver() != null)
+				state.getObserver().onMove(seat, from, position);
+
+			logger.info("%s moved to %s.", name, game.tileAt(position).getName());
+			return TurnPhase.RESOLVE_TILE;
+
+		case RESOLVE_TILE:
+			purchaseOrPayRent(Dice.total(roll));
+			return TurnPhase.CARD;
+
+		case CARD:
+			pickupCardIfRequired(Dice.total(roll));
+			return TurnPhase.TILE_EFFECTS;
+
+		case TILE_EFFECTS:
+			payTaxes();
+
+			Tile currTile = game.tileAt(landedTile);
+			if (currTile.getType() == TileType.GO_TO_JAIL) {
+				setPosition(10);
+				goToJail();
+				logger.info("%s got sent to jail.", name);
+			} else if (currTile.getType() == TileType.FREE_PARKING) {
+				int poolSize = ((FreeParkingTile) currTile).getPoolAmount();
+				this.addBalance(poolSize);
+				((FreeParkingTile) currTile).clearPool();
+				logger.info("%s landed on free parking.", name);
+			}
+			return TurnPhase.TRADES;
 
-		if (roll[0] == roll[1]) {
-			logger.info(String.format("Since %s rolled double. They are going again", name));
-			playTurn();
-		}
+		case TRADES:
+			if (!isBankrupt())
+				game.getTradeMatcher().trade(this, game.getPlayers());
+			return TurnPhase.BUILD;
 
-		autoUnmortgage(broker);
+		case BUILD:
+			autoBuyHouses(broker);
 
-		if (balance == -1) {
-			game.getPlayers().remove(this);
+			if (Dice.isDoubles(roll)) {
+				logger.info("Since %s rolled double. They are going again", name);
+				return TurnPhase.ROLL;
+			}
+			return TurnPhase.UNMORTGAGE;
+
+		case UNMORTGAGE:
+			for (; pendingUnmortgages > 0; pendingUnmortgages--)
+				autoUnmortgage(broker);
+			return TurnPhase.END;
+
+		default:
+			return TurnPhase.END;
 		}
 	}
 
+	/**
+	 * Rebuilds the list of assets from the ownership mask, for a state whose
+	 * owners were written directly (such as a replayed game). Assets are listed
+	 * in board order.
+	 */
+	void syncAssets() {
+		assets.clear();
+		for (long rest = getOwnershipMask(); rest != 0; rest &= rest - 1)
+			assets.add((OwnableTile) game.tileAt(Long.numberOfTrailingZeros(rest)));
+	}
+
 	/**
 	 * @return Get the total number of houses belonging to the player
 	 */
@@ -424,11 +577,9 @@ public class Player {
 	 * @param amount The expected balance after liquidation occurs
 	 */
 	private void liquidate(int amount) {
-		TradeBroker broker = new TradeBroker(this);
-
 		broker.sortAssetsByWorth();
 
-		for (int i = assets.size() - 1; i >= 0 && amount > balance; i--) {
+		for (int i = assets.size() - 1; i >= 0 && strategy.shouldMortgage(this, assets.get(i), amount); i--) {
 			assets.get(i).mortgage();
 			if (i == 0)
 				break;
@@ -438,45 +589,41 @@ public class Player {
 
 	/**
 	 * Deduct balance from user. If they do not have enough money, then player will
-	 * mortgage properties.
+	 * mortgage properties. A player who cannot pay goes bankrupt and leaves the
+	 * game; nothing more is deducted from a bankrupt player.
 	 * 
 	 * @param amount The amount to be deducted from the player's balance
 	 * @return The amount of money deducted from the player's balance
 	 */
 	public int deductBalance(int amount) {
-		if (amount > balance) {
+		if (isBankrupt())
+			return 0;
+
+		if (amount > getBalance()) {
 			liquidate(amount);
 		}
-		int lastBalance = balance;
+		int lastBalance = getBalance();
 
-		if (amount > balance) {
-			balance = -1;
-			getGame().getPlayers().remove(this);
+		if (amount > lastBalance) {
+			state.getLedger().bankrupt(seat);
+			if (state.getObserver() != null)
+				state.getObserver().onBankruptcy(seat);
 			return lastBalance;
 		} else {
-			balance -= amount;
+			state.getLedger().debit(seat, amount);
 			return amount;
 		}
 	}
 
 	/**
-	 * Add a balance to the players holdings.
+	 * Add a balance to the players holdings. The money held by all players never
+	 * exceeds BankLedger.MONEY_SUPPLY; only what fits under it is added.
 	 *
 	 * @param amount The amount to be added to the player's balance
 	 * @return The amount of money added to the player's balance
 	 */
 	public int addBalance(int amount) {
-		ArrayList<Player> players = (ArrayList<Player>) (getGame()).getPlayers();
-		int circulation = 0;
-		for (Player p : players)
-			circulation += p.getBalance();
-		if (20580 - circulation - amount >= 0) {
-			balance += amount;
-			return amount;
-		} else {
-			balance += 20580 - circulation;
-			return 20580 - circulation;
-		}
+		return state.getLedger().credit(seat, amount);
 	}
 
 	/**
@@ -502,10 +649,11 @@ public class Player {
 	/**
 	 * Checks if the player is bankrupt.
 	 *
-	 * @return False if the player is able to pull out of debt; true otherwise
+	 * @return True once the player has gone bankrupt and left the game; false
+	 *         otherwise
 	 */
 	public boolean isBankrupt() {
-		return balance < 0;
+		return !state.isActive(seat);
 	}
 
 	/**
@@ -515,6 +663,6 @@ public class Player {
 	 *         &nbsp;&nbsp;&nbsp;&nbsp; Ex: North ($1500)
 	 */
 	public String toString() {
-		return String.format("%s ($%d)", name, balance);
+		return String.format("%s ($%d)", name, getBalance());
 	}
 }
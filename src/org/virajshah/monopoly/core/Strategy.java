@@ -0,0 +1,81 @@
+package org.virajshah.monopoly.core;
+
+import org.virajshah.monopoly.tiles.OwnableTile;
+import org.virajshah.monopoly.tiles.PropertyTile;
+
+/**
+ * The decisions a player makes during a game: whether to buy a tile, build a
+ * house, lift a mortgage or mortgage a tile to raise cash, how much cash to
+ * hold back when trading and what each tile is worth in a trade. Every
+ * decision is asked of the player's strategy each time it comes up, so a
+ * strategy can look at anything in the game.
+ *
+ * A single strategy instance is shared by every player and game it is given
+ * to, possibly on several threads at once; strategies should be stateless (or
+ * at least thread safe) and should not allocate, since they are called from
+ * the turn loop.
+ *
+ * @author Viraj Shah
+ */
+public interface Strategy {
+	/**
+	 * @param player The player who landed on the tile
+	 * @param tile   An unowned tile
+	 * @return True if the player buys the tile from the bank
+	 */
+	boolean shouldBuy(Player player, OwnableTile tile);
+
+	/**
+	 * Asked once per house, for as long as the player is allowed to build on the
+	 * property
+	 *
+	 * @param player   The owner of the property
+	 * @param property A property the player is allowed to build on
+	 * @return True if the player buys one more house for the property
+	 */
+	boolean shouldBuildHouse(Player player, PropertyTile property);
+
+	/**
+	 * @param player The owner of the tile
+	 * @param tile   One of the player's tiles
+	 * @return True if the player lifts the mortgage on the tile
+	 */
+	boolean shouldUnmortgage(Player player, OwnableTile tile);
+
+	/**
+	 * Asked while the player is raising cash for a payment, going through their
+	 * tiles from the least to the most valuable. A player who stops mortgaging
+	 * before they can pay goes bankrupt.
+	 *
+	 * @param player    The player raising cash
+	 * @param tile      The next tile which could be mortgaged
+	 * @param amountDue The payment being raised
+	 * @return True if the player mortgages the tile
+	 */
+	boolean shouldMortgage(Player player, OwnableTile tile, int amountDue);
+
+	/**
+	 * @param player The player trading
+	 * @return The least cash the player keeps after paying for a trade
+	 */
+	int getCashFloor(Player player);
+
+	/**
+	 * Values a tile for trading. The value is cached until the player's
+	 * portfolio changes, so it should only depend on the player's tiles and the
+	 * houses on them.
+	 *
+	 * @param player        The owner of the tile
+	 * @param tile          One of the player's tiles
+	 * @param setCompletion The share of the tile's set owned by the player
+	 * @return The value of the tile to the player
+	 */
+	int valueTile(Player player, OwnableTile tile, double setCompletion);
+
+	/**
+	 * @return The name of the strategy, as shown in tournament results
+	 */
+	default String getName() {
+		return getClass().getSimpleName();
+	}
+}
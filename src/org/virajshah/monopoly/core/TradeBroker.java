@@ -1,7 +1,8 @@
 package org.virajshah.monopoly.core;
 
-import java.util.*;
-import java.util.Map.Entry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.virajshah.monopoly.tiles.*;
 
@@ -10,6 +11,11 @@ import org.virajshah.monopoly.tiles.*;
  * with a Player object, which is the client. The broker will only build trades
  * if it will benefit the client Player.
  * 
+ * Every player keeps a single broker for the whole game. The broker caches how
+ * complete each of the client's sets is, the value of every tile to the client
+ * and the client's ranked wanted list, and only recomputes them when the
+ * client's portfolio version (see GameState.getPortfolioVersion) changes.
+ * 
  * @author Viraj Shah
  */
 public class TradeBroker {
@@ -18,6 +24,38 @@ public class TradeBroker {
 	 */
 	private Player client;
 
+	/**
+	 * The state of the client's game
+	 */
+	private final GameState state;
+
+	/**
+	 * The portfolio version of the client which the caches were computed for
+	 */
+	private int version;
+
+	/**
+	 * How complete the set of each tile owned by the client is (0 for tiles the
+	 * client does not own)
+	 */
+	private final double[] completions = new double[GameState.TILES];
+
+	/**
+	 * The value of each tile to the client; only valid where valued has the tile's
+	 * bit set
+	 */
+	private final int[] values = new int[GameState.TILES];
+
+	/**
+	 * Bit i is set if values[i] is valid
+	 */
+	private long valued;
+
+	/**
+	 * The client's assets ranked by mostWantedProperties(); null until computed
+	 */
+	private ArrayList<OwnableTile> wanted;
+
 	/**
 	 * Construct a TradeBroker object
 	 * 
@@ -25,63 +63,37 @@ public class TradeBroker {
 	 */
 	public TradeBroker(Player client) {
 		this.client = client;
-	}
-
-	private void computePropertySetCompletion(HashMap<OwnableTile, Double> completionRates) {
-		for (OwnableTile asset : client.getAssets()) {
-			if (asset.getType() == Tile.TileType.PROPERTY) {
-				int group = ((PropertyTile) asset).getGroupNumber();
-				int count = 0;
-				int setMaxCount = group == 1 || group == 8 ? 2 : 3;
-				for (OwnableTile comparableAsset : client.getAssets()) {
-					if (comparableAsset.getType() == Tile.TileType.PROPERTY
-							&& ((PropertyTile) comparableAsset).getGroupNumber() == group)
-						count++;
-				}
-				completionRates.put(asset, (double) count / setMaxCount);
-			}
-		}
-	}
-
-	private void computeRailroadSetCompletion(HashMap<OwnableTile, Double> completionRates) {
-		for (OwnableTile asset : client.getAssets()) {
-			int count = 0;
-			for (OwnableTile comparableAsset : client.getAssets()) {
-				if (comparableAsset.getType() == Tile.TileType.RAILROAD)
-					count++;
-			}
-			completionRates.put(asset, (double) count / 4.0);
-		}
-	}
-
-	private void computeUtilitySetCompletion(HashMap<OwnableTile, Double> completionRates) {
-		for (OwnableTile asset : client.getAssets()) {
-			int count = 0;
-			for (OwnableTile comparableAsset : client.getAssets()) {
-				if (comparableAsset.getType() == Tile.TileType.UTILITY)
-					count++;
-			}
-			completionRates.put(asset, (double) count / 2.0);
-		}
+		this.state = client.getGame().getState();
+		this.version = -1;
 	}
 
 	/**
-	 * @return A HashMap of how complete each monopoly set is
+	 * Throws the caches away if the client's portfolio has changed since they were
+	 * computed, and recomputes the set completions
 	 */
-	private HashMap<OwnableTile, Double> getSetCompletions() {
-		HashMap<OwnableTile, Double> completionRates = new HashMap<>();
-
-		for (OwnableTile asset : client.getAssets()) {
-			if (asset.getType() == Tile.TileType.PROPERTY) {
-				computePropertySetCompletion(completionRates);
-			} else if (asset.getType() == Tile.TileType.RAILROAD) {
-				computeRailroadSetCompletion(completionRates);
-			} else if (asset.getType() == Tile.TileType.UTILITY) {
-				computeUtilitySetCompletion(completionRates);
-			}
+	private void refresh() {
+		int current = state.getPortfolioVersion(client.getSeat());
+		if (current == version)
+			return;
+
+		long owned = client.getOwnershipMask();
+		Arrays.fill(completions, 0);
+		for (long rest = owned; rest != 0; rest &= rest - 1) {
+			int tile = Long.numberOfTrailingZeros(rest);
+			int group = BoardLayout.groupOf(tile);
+
+			if (group != 0)
+				completions[tile] = (double) Long.bitCount(owned & BoardLayout.groupMask(group))
+						/ BoardLayout.groupSize(group);
+			else if ((BoardLayout.RAILROAD_MASK & (1L << tile)) != 0)
+				completions[tile] = Long.bitCount(owned & BoardLayout.RAILROAD_MASK) / 4.0;
+			else if ((BoardLayout.UTILITY_MASK & (1L << tile)) != 0)
+				completions[tile] = Long.bitCount(owned & BoardLayout.UTILITY_MASK) / 2.0;
 		}
 
-		return completionRates;
+		valued = 0;
+		wanted = null;
+		version = current;
 	}
 
 	/**
@@ -92,33 +104,21 @@ public class TradeBroker {
 	 * @return The value of a property to the client
 	 */
 	public int valueToClient(OwnableTile asset) {
-		double value = 200;
-		double setCompletion;
-
-		HashMap<OwnableTile, Double> setCompletions = getSetCompletions();
-		if (setCompletions.keySet().contains(asset))
-			setCompletion = getSetCompletions().get(asset);
-		else
-			setCompletion = 0;
-
-		if (setCompletion == 1) {
-			value *= 2;
-		} else if (setCompletion >= 0.5) {
-			value *= 1 + setCompletion;
-		}
-
-		if (asset.getType() == Tile.TileType.PROPERTY) {
-			value *= 1.33;
+		refresh();
 
-			if (setCompletion == 1) {
-				PropertyTile property = (PropertyTile) asset;
-				if (property.getNumberOfHouses() > 0) {
-					value *= property.getNumberOfHouses();
-				}
-			}
+		int tile = asset.getIndex();
+		if ((valued & (1L << tile)) == 0) {
+			values[tile] = client.getStrategy().valueTile(client, asset, completions[tile]);
+			valued |= 1L << tile;
 		}
+		return values[tile];
+	}
 
-		return (int) value + asset.getPropertyValue();
+	/**
+	 * Orders assets from most to least valuable to the client
+	 */
+	private void sortByValue(List<OwnableTile> assets) {
+		assets.sort((a, b) -> Integer.compare(valueToClient(b), valueToClient(a)));
 	}
 
 	/**
@@ -130,26 +130,17 @@ public class TradeBroker {
 	 *         properties by the client
 	 */
 	public List<OwnableTile> mostWantedProperties(double completionThreshold) {
-		HashMap<OwnableTile, Double> completionRates = getSetCompletions();
-		ArrayList<OwnableTile> wanted = new ArrayList<>();
-
-		for (Entry<OwnableTile, Double> entry : completionRates.entrySet()) {
-			OwnableTile asset = entry.getKey();
-			if (completionRates.get(asset) >= completionThreshold)
-				wanted.add(asset);
-		}
+		refresh();
+		ArrayList<OwnableTile> list = new ArrayList<>();
 
-		for (int i = 0; i < wanted.size() - 1; i++) {
-			for (int j = i + 1; j < wanted.size(); j++) {
-				if (valueToClient(wanted.get(i)) < valueToClient(wanted.get(j))) {
-					OwnableTile tmp = wanted.get(i);
-					wanted.set(i, wanted.get(j));
-					wanted.set(j, tmp);
-				}
-			}
+		for (long rest = client.getOwnershipMask(); rest != 0; rest &= rest - 1) {
+			int tile = Long.numberOfTrailingZeros(rest);
+			if (completions[tile] >= completionThreshold)
+				list.add((OwnableTile) client.getGame().tileAt(tile));
 		}
 
-		return wanted;
+		sortByValue(list);
+		return list;
 	}
 
 	/**
@@ -159,12 +150,23 @@ public class TradeBroker {
 	 * @return An ArrayList of the most wanted properties
 	 */
 	public List<OwnableTile> mostWantedProperties() {
-		double completionThreshold = 0.5;
-		ArrayList<OwnableTile> wanted = (ArrayList<OwnableTile>) mostWantedProperties(completionThreshold);
+		return new ArrayList<>(wanted());
+	}
 
-		while (wanted.isEmpty() && completionThreshold >= 0) {
-			completionThreshold -= 0.1;
+	/**
+	 * @return The cached result of mostWantedProperties(); must not be modified
+	 */
+	private List<OwnableTile> wanted() {
+		refresh();
+
+		if (wanted == null) {
+			double completionThreshold = 0.5;
 			wanted = (ArrayList<OwnableTile>) mostWantedProperties(completionThreshold);
+
+			while (wanted.isEmpty() && completionThreshold >= 0) {
+				completionThreshold -= 0.1;
+				wanted = (ArrayList<OwnableTile>) mostWantedProperties(completionThreshold);
+			}
 		}
 
 		return wanted;
@@ -209,12 +211,12 @@ public class TradeBroker {
 	 *         clients list of assets
 	 */
 	public PropertyTile getPrimaryAssetFromSet(int groupNumber) {
-		for (PropertyTile property : client.getProperties()) {
-			if (property.getGroupNumber() == groupNumber) {
-				return property;
-			}
-		}
-		return null;
+		if (groupNumber < 1 || groupNumber > BoardLayout.GROUPS)
+			return null;
+
+		// The lowest tile of the group, so the choice only depends on ownership
+		long owned = client.getOwnershipMask() & BoardLayout.groupMask(groupNumber);
+		return owned != 0 ? (PropertyTile) client.getGame().tileAt(Long.numberOfTrailingZeros(owned)) : null;
 	}
 
 	/**
@@ -261,19 +263,36 @@ public class TradeBroker {
 	 *         deal was made.
 	 */
 	public boolean buildBestTradeOffer(Player otherPlayer) {
-		TradeBroker otherBroker = new TradeBroker(otherPlayer);
+		TradeOffer deal = proposeTrade(otherPlayer);
+
+		if (deal == null || !deal.isAffordable())
+			return false;
+
+		deal.execute();
+		return true;
+	}
+
+	/**
+	 * Builds the best possible trade for the client and another player, without
+	 * checking whether either of them can afford it
+	 * 
+	 * @param otherPlayer The other player to broker a deal with
+	 * @return The deal; null if the two players have nothing the other wants
+	 */
+	TradeOffer proposeTrade(Player otherPlayer) {
+		TradeBroker otherBroker = otherPlayer.getBroker();
 		OwnableTile mostWanted;
 		OwnableTile otherMostWanted;
 		int wantedSet;
 		int otherWantedSet; // 1-8 = colored properties; 9 = railroad; 10 = utility
 
-		ArrayList<OwnableTile> ranked = (ArrayList<OwnableTile>) mostWantedProperties();
-		ArrayList<OwnableTile> otherRanked = (ArrayList<OwnableTile>) otherBroker.mostWantedProperties();
-		mostWanted = !ranked.isEmpty() ? mostWantedProperties().get(0) : null;
-		otherMostWanted = !otherRanked.isEmpty() ? otherBroker.mostWantedProperties().get(0) : null;
+		List<OwnableTile> ranked = wanted();
+		List<OwnableTile> otherRanked = otherBroker.wanted();
+		mostWanted = !ranked.isEmpty() ? ranked.get(0) : null;
+		otherMostWanted = !otherRanked.isEmpty() ? otherRanked.get(0) : null;
 
 		if (mostWanted == null || otherMostWanted == null)
-			return false;
+			return null;
 
 		wantedSet = getAssetSetNumber(mostWanted);
 		otherWantedSet = getAssetSetNumber(otherMostWanted);
@@ -285,35 +304,23 @@ public class TradeBroker {
 			otherWantedAsset = getPrimaryAssetFromSet(otherWantedSet);
 			wantedAsset = otherBroker.getPrimaryAssetFromSet(wantedSet);
 
+			// Neither player can offer what the other wants
+			if (wantedAsset == null || otherWantedAsset == null)
+				return null;
+
 			int wantedAssetValue = (valueToClient(wantedAsset) + otherBroker.valueToClient(wantedAsset)) / 2;
 			int otherWantedAssetValue = (valueToClient(otherWantedAsset) + otherBroker.valueToClient(otherWantedAsset))
 					/ 2;
 			int cashOffer = wantedAssetValue - otherWantedAssetValue;
-			TradeOffer deal = new TradeOffer(client, otherPlayer, otherWantedAsset, wantedAsset, cashOffer);
-
-			// Check if the deal will bankrupt any players
-			if ((cashOffer > 0 && client.getBalance() - cashOffer < 300)
-					|| (cashOffer < 0 && otherPlayer.getBalance() + cashOffer < 300))
-				return false;
-
-			deal.execute();
-			return true;
+			return new TradeOffer(client, otherPlayer, otherWantedAsset, wantedAsset, cashOffer);
 		}
-		return false;
+		return null;
 	}
 
 	/**
 	 * Organize the clients assets by value (most valuable to least valuable)
 	 */
 	public void sortAssetsByWorth() {
-		for (int i = 0; i < client.getAssets().size() - 1; i++) {
-			for (int j = i + 1; j < client.getAssets().size(); j++) {
-				if (valueToClient(client.getAssets().get(i)) < valueToClient(client.getAssets().get(j))) {
-					OwnableTile tmp = client.getAssets().get(i);
-					client.getAssets().set(i, client.getAssets().get(j));
-					client.getAssets().set(j, tmp);
-				}
-			}
-		}
+		sortByValue(client.getAssets());
 	}
 }
\ No newline at end of file
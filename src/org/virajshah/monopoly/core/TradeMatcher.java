@@ -0,0 +1,125 @@
+package org.virajshah.monopoly.core;
+
+import java.util.List;
+
+/**
+ * Matches trades between the players of a single game. A pair of players is
+ * only brokered again when something the last attempt depended on has
+ * changed: the portfolio of either player, or the cash of a player who could
+ * not afford the deal rising past what it would have cost them. Pairs with
+ * nothing to trade therefore cost a few comparisons per turn instead of
+ * a full valuation of both portfolios.
+ *
+ * @author Viraj Shah
+ */
+class TradeMatcher {
+	/**
+	 * The game state holding the portfolio versions
+	 */
+	private final GameState state;
+
+	/**
+	 * The number of seats in the game
+	 */
+	private final int seats;
+
+	/**
+	 * True if the last attempt of each ordered pair of seats failed, at [client *
+	 * seats + other]
+	 */
+	private final boolean[] rejected;
+
+	/**
+	 * The client's portfolio version at the last failed attempt of each pair
+	 */
+	private final int[] clientVersions;
+
+	/**
+	 * The other player's portfolio version at the last failed attempt of each pair
+	 */
+	private final int[] otherVersions;
+
+	/**
+	 * The balance the client needed for the last failed deal of each pair
+	 * (Integer.MAX_VALUE if there was no deal)
+	 */
+	private final int[] requiredClientBalances;
+
+	/**
+	 * The balance the other player needed for the last failed deal of each pair
+	 * (Integer.MAX_VALUE if there was no deal)
+	 */
+	private final int[] requiredOtherBalances;
+
+	/**
+	 * Constructs the trade matcher of a game
+	 *
+	 * @param state The state of the game
+	 */
+	TradeMatcher(GameState state) {
+		this.state = state;
+		seats = state.getSeats();
+		rejected = new boolean[seats * seats];
+		clientVersions = new int[seats * seats];
+		otherVersions = new int[seats * seats];
+		requiredClientBalances = new int[seats * seats];
+		requiredOtherBalances = new int[seats * seats];
+	}
+
+	/**
+	 * Makes every trade the client can with each of the other players still in the
+	 * game, trading with the same player again for as long as a good deal can be
+	 * found
+	 *
+	 * @param client  The player looking for trades
+	 * @param players The players of the game
+	 */
+	void trade(Player client, List<Player> players) {
+		for (int i = 0; i < players.size(); i++) {
+			Player other = players.get(i);
+			if (other != client && !other.isBankrupt())
+				while (tryTrade(client, other))
+					;
+		}
+	}
+
+	/**
+	 * Builds and executes the best trade between two players, unless nothing has
+	 * changed since the pair last failed to trade
+	 *
+	 * @param client The player looking for a trade
+	 * @param other  The player to trade with
+	 * @return True if a trade was executed
+	 */
+	boolean tryTrade(Player client, Player other) {
+		int pair = client.getSeat() * seats + other.getSeat();
+		int clientVersion = state.getPortfolioVersion(client.getSeat());
+		int otherVersion = state.getPortfolioVersion(other.getSeat());
+
+		if (rejected[pair] && clientVersions[pair] == clientVersion && otherVersions[pair] == otherVersion
+				&& (client.getBalance() < requiredClientBalances[pair]
+						|| other.getBalance() < requiredOtherBalances[pair]))
+			return false;
+
+		TradeOffer deal = client.getBroker().proposeTrade(other);
+
+		if (deal != null && deal.isAffordable()) {
+			rejected[pair] = false;
+			deal.execute();
+			return true;
+		}
+
+		rejected[pair] = true;
+		clientVersions[pair] = clientVersion;
+		otherVersions[pair] = otherVersion;
+		if (deal == null) {
+			// No amount of cash will help until a portfolio changes
+			requiredClientBalances[pair] = Integer.MAX_VALUE;
+			requiredOtherBalances[pair] = Integer.MAX_VALUE;
+		} else {
+			requiredClientBalances[pair] = deal.getRequiredSenderBalance();
+			requiredOtherBalances[pair] = deal.getRequiredReceiverBalance();
+		}
+		return false;
+	}
+}
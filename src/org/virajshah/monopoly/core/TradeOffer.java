@@ -55,10 +55,48 @@ public class TradeOffer {
 		this.cashOffer = cashOffer;
 	}
 
+	/**
+	 * @return The sender's cash stake in the offer (negative if the sender
+	 *         receives cash)
+	 */
+	public int getCashOffer() {
+		return cashOffer;
+	}
+
+	/**
+	 * @return The balance the sender needs for the offer to be affordable
+	 */
+	int getRequiredSenderBalance() {
+		return cashOffer > 0 ? cashOffer + sender.getStrategy().getCashFloor(sender) : Integer.MIN_VALUE;
+	}
+
+	/**
+	 * @return The balance the receiver needs for the offer to be affordable
+	 */
+	int getRequiredReceiverBalance() {
+		return cashOffer < 0 ? receiver.getStrategy().getCashFloor(receiver) - cashOffer : Integer.MIN_VALUE;
+	}
+
+	/**
+	 * Checks that the offer would not leave either player with less than the cash
+	 * floor of their strategy
+	 * 
+	 * @return True if both players can afford the offer
+	 */
+	public boolean isAffordable() {
+		return sender.getBalance() >= getRequiredSenderBalance()
+				&& receiver.getBalance() >= getRequiredReceiverBalance();
+	}
+
 	/**
 	 * Execute the trade between the recipient and the sender
 	 */
 	public void execute() {
+		GameObserver observer = sender.getGame().getState().getObserver();
+		if (observer != null)
+			observer.onTrade(sender.getSeat(), receiver.getSeat(), senderTile.getIndex(), receiverTile.getIndex(),
+					cashOffer);
+
 		if (cashOffer > 0) {
 			sender.deductBalance(cashOffer);
 			receiver.addBalance(cashOffer);
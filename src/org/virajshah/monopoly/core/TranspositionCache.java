@@ -0,0 +1,145 @@
+package org.virajshah.monopoly.core;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * A fixed-size cache of evaluations of game positions, keyed by the position's
+ * 64-bit hash (see GameState.getHash and MonopolyGame.getPositionHash). Each
+ * hash maps to a single slot, and a new entry simply replaces whatever was in
+ * its slot, so the cache never grows past its capacity and needs no eviction
+ * bookkeeping.
+ *
+ * The cache is safe to share between threads without locking: entries are
+ * immutable and every slot is read and written atomically. Two threads which
+ * miss on the same hash at once may both evaluate it; the last one wins.
+ *
+ * @author Viraj Shah
+ *
+ * @param <V> The type of the evaluations
+ */
+public class TranspositionCache<V> {
+	/**
+	 * A cached evaluation with the full hash of its position
+	 */
+	private static final class Entry<V> {
+		private final long hash;
+		private final V value;
+
+		Entry(long hash, V value) {
+			this.hash = hash;
+			this.value = value;
+		}
+	}
+
+	/**
+	 * The slots, one entry (or null) each
+	 */
+	private final AtomicReferenceArray<Entry<V>> slots;
+
+	/**
+	 * The number of slots minus one (the number of slots is a power of two)
+	 */
+	private final int mask;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Constructs an empty cache
+	 *
+	 * @param capacity The least number of entries the cache holds; rounded up to
+	 *                 a power of two
+	 */
+	public TranspositionCache(int capacity) {
+		if (capacity < 1 || capacity > 1 << 30)
+			throw new IllegalArgumentException("Invalid capacity: " + capacity);
+
+		int slotCount = Integer.highestOneBit(capacity);
+		if (slotCount < capacity)
+			slotCount <<= 1;
+		slots = new AtomicReferenceArray<>(slotCount);
+		mask = slotCount - 1;
+	}
+
+	/**
+	 * @param hash The hash of a position
+	 * @return The cached evaluation of the position, or null if it is not cached
+	 */
+	public V get(long hash) {
+		Entry<V> entry = slots.get(slotOf(hash));
+		if (entry != null && entry.hash == hash) {
+			hits.increment();
+			return entry.value;
+		}
+		misses.increment();
+		return null;
+	}
+
+	/**
+	 * Caches the evaluation of a position, replacing whatever was in its slot
+	 *
+	 * @param hash  The hash of the position
+	 * @param value The evaluation of the position
+	 */
+	public void put(long hash, V value) {
+		slots.set(slotOf(hash), new Entry<>(hash, value));
+	}
+
+	/**
+	 * @param hash     The hash of a position
+	 * @param evaluate Evaluates the position if it is not cached
+	 * @return The cached evaluation of the position, or the new one
+	 */
+	public V computeIfAbsent(long hash, LongFunction<? extends V> evaluate) {
+		V value = get(hash);
+		if (value == null) {
+			value = evaluate.apply(hash);
+			put(hash, value);
+		}
+		return value;
+	}
+
+	/**
+	 * Empties the cache
+	 */
+	public void clear() {
+		for (int slot = 0; slot <= mask; slot++)
+			slots.set(slot, null);
+	}
+
+	/**
+	 * @return The number of entries the cache holds
+	 */
+	public int getCapacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * @return The number of lookups which found their position
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return The number of lookups which did not find their position
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @param hash The hash of a position
+	 * @return The slot of the position
+	 */
+	private int slotOf(long hash) {
+		return (int) (hash ^ hash >>> 32) & mask;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d slots, %d hits, %d misses", getCapacity(), getHits(), getMisses());
+	}
+}
@@ -0,0 +1,61 @@
+package org.virajshah.monopoly.core;
+
+/**
+ * The phases of a turn, in the order they are played. A turn is played one
+ * phase at a time by MonopolyGame.step(), so a caller can stop between any two
+ * phases; rolling doubles sends the turn from BUILD back to ROLL instead of
+ * recursing.
+ *
+ * @author Viraj Shah
+ */
+public enum TurnPhase {
+	/**
+	 * Roll the dice
+	 */
+	ROLL,
+
+	/**
+	 * Serve time in jail, or get out of it
+	 */
+	JAIL_CHECK,
+
+	/**
+	 * Move by the roll, collecting $200 for passing Go
+	 */
+	MOVE,
+
+	/**
+	 * Buy the tile landed on, or pay rent on it
+	 */
+	RESOLVE_TILE,
+
+	/**
+	 * Draw and play a Chance or Community Chest card
+	 */
+	CARD,
+
+	/**
+	 * Pay taxes, go to jail or collect the Free Parking pool
+	 */
+	TILE_EFFECTS,
+
+	/**
+	 * Trade with the other players
+	 */
+	TRADES,
+
+	/**
+	 * Buy houses
+	 */
+	BUILD,
+
+	/**
+	 * Lift mortgages
+	 */
+	UNMORTGAGE,
+
+	/**
+	 * The turn is over
+	 */
+	END
+}
@@ -0,0 +1,378 @@
+package org.virajshah.monopoly.core;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.virajshah.monopoly.analysis.ConfidenceInterval;
+import org.virajshah.monopoly.logs.Logger;
+import org.virajshah.monopoly.tiles.OwnableTile;
+import org.virajshah.monopoly.tiles.PropertyTile;
+import org.virajshah.monopoly.tiles.Tile;
+
+/**
+ * Estimates how likely each seat is to win a game from its current position,
+ * by forking the game many times and playing each fork (a rollout) on, spread
+ * across every core. Rollouts are played in batches; sampling stops as soon as the
+ * seat winning most rollouts is clearly ahead (the lower bound of its interval
+ * is above the upper bound of every other seat's) or the rollout budget is
+ * spent, so an estimate never costs more than the budget.
+ *
+ * A rollout which is still going after the turn horizon is scored as a win for
+ * the active seat with the highest net worth (cash, plus the price of every
+ * unmortgaged tile, half the price of every mortgaged one and the price of
+ * every house). A rollout which throws is left out of the counts and only
+ * reported by Estimate.getFailedRollouts.
+ *
+ * An estimator may be given a TranspositionCache, in which case an estimate is
+ * only played once per position (see MonopolyGame.getPositionHash) and reused
+ * whenever the position comes up again, whatever the seed.
+ *
+ * @author Viraj Shah
+ */
+public class WinProbabilityEstimator {
+	/**
+	 * The default number of rollouts played before sampling can stop
+	 */
+	public static final int DEFAULT_MIN_ROLLOUTS = 64;
+
+	/**
+	 * The default largest number of rollouts
+	 */
+	public static final int DEFAULT_MAX_ROLLOUTS = 512;
+
+	/**
+	 * The default number of turns a rollout is played for before it is scored
+	 */
+	public static final int DEFAULT_HORIZON = 200;
+
+	/**
+	 * The number of rollouts played by a single task without splitting it
+	 * further
+	 */
+	private static final int GRAIN = 4;
+
+	/**
+	 * Returned by rollout() for a rollout which threw
+	 */
+	private static final int FAILED = -2;
+
+	/**
+	 * The estimated win probability of every seat
+	 */
+	public static class Estimate {
+		private final long[] wins;
+		private final long rollouts;
+		private final long failed;
+		private final double z;
+
+		Estimate(long[] wins, long rollouts, long failed, double z) {
+			this.wins = wins;
+			this.rollouts = rollouts;
+			this.failed = failed;
+			this.z = z;
+		}
+
+		/**
+		 * @return The number of rollouts counted (played without failing)
+		 */
+		public long getRollouts() {
+			return rollouts;
+		}
+
+		/**
+		 * @return The number of rollouts which threw and were left out
+		 */
+		public long getFailedRollouts() {
+			return failed;
+		}
+
+		/**
+		 * @param seat The seat number
+		 * @return The number of rollouts won by the seat
+		 */
+		public long getWins(int seat) {
+			return wins[seat];
+		}
+
+		/**
+		 * @param seat The seat number
+		 * @return The win probability of the seat, with its Wilson score interval
+		 */
+		public ConfidenceInterval getProbability(int seat) {
+			return ConfidenceInterval.wilson(wins[seat], rollouts, z);
+		}
+
+		/**
+		 * @return The seat which won the most rollouts (the lowest seat on a tie)
+		 */
+		public int getLeader() {
+			int leader = 0;
+			for (int seat = 1; seat < wins.length; seat++)
+				if (wins[seat] > wins[leader])
+					leader = seat;
+			return leader;
+		}
+
+		/**
+		 * @return True if the leader's interval lies above every other seat's
+		 */
+		public boolean isLeaderClear() {
+			int leader = getLeader();
+			double lower = getProbability(leader).getLower();
+			for (int seat = 0; seat < wins.length; seat++)
+				if (seat != leader && getProbability(seat).getUpper() >= lower)
+					return false;
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder out = new StringBuilder(rollouts + " rollouts");
+			if (failed > 0)
+				out.append(" (").append(failed).append(" failed)");
+			for (int seat = 0; seat < wins.length; seat++)
+				out.append(String.format("; seat %d %s", seat, getProbability(seat)));
+			return out.toString();
+		}
+	}
+
+	/**
+	 * The pool which plays the rollouts
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * The number of rollouts played before sampling can stop
+	 */
+	private final int minRollouts;
+
+	/**
+	 * The largest number of rollouts
+	 */
+	private final int maxRollouts;
+
+	/**
+	 * The number of turns a rollout is played for before it is scored
+	 */
+	private final int horizon;
+
+	/**
+	 * The z-score of the confidence level
+	 */
+	private final double z;
+
+	/**
+	 * The estimates of positions seen before; null if estimates are not cached
+	 */
+	private final TranspositionCache<Estimate> cache;
+
+	/**
+	 * Constructs an estimator with the default budget which uses the common
+	 * fork-join pool
+	 */
+	public WinProbabilityEstimator() {
+		this(ForkJoinPool.commonPool(), DEFAULT_MIN_ROLLOUTS, DEFAULT_MAX_ROLLOUTS, DEFAULT_HORIZON,
+				ConfidenceInterval.Z_95);
+	}
+
+	/**
+	 * Constructs an estimator
+	 *
+	 * @param pool        The pool which plays the rollouts
+	 * @param minRollouts The number of rollouts played before sampling can stop;
+	 *                    also the number played between checks
+	 * @param maxRollouts The largest number of rollouts
+	 * @param horizon     The number of turns a rollout is played for before it is
+	 *                    scored
+	 * @param z           The z-score of the confidence level
+	 */
+	public WinProbabilityEstimator(ForkJoinPool pool, int minRollouts, int maxRollouts, int horizon, double z) {
+		this(pool, minRollouts, maxRollouts, horizon, z, null);
+	}
+
+	/**
+	 * Constructs an estimator which caches its estimates
+	 *
+	 * @param pool        The pool which plays the rollouts
+	 * @param minRollouts The number of rollouts played before sampling can stop;
+	 *                    also the number played between checks
+	 * @param maxRollouts The largest number of rollouts
+	 * @param horizon     The number of turns a rollout is played for before it is
+	 *                    scored
+	 * @param z           The z-score of the confidence level
+	 * @param cache       The estimates of positions seen before, which may be
+	 *                    shared with other estimators with the same budget; null
+	 *                    to not cache
+	 */
+	public WinProbabilityEstimator(ForkJoinPool pool, int minRollouts, int maxRollouts, int horizon, double z,
+			TranspositionCache<Estimate> cache) {
+		if (minRollouts < 1 || maxRollouts < minRollouts)
+			throw new IllegalArgumentException("Invalid rollout budget: " + minRollouts + " to " + maxRollouts);
+		if (horizon < 1)
+			throw new IllegalArgumentException("Horizon must be at least 1: " + horizon);
+
+		this.pool = pool;
+		this.minRollouts = minRollouts;
+		this.maxRollouts = maxRollouts;
+		this.horizon = horizon;
+		this.z = z;
+		this.cache = cache;
+	}
+
+	/**
+	 * @return The estimates of positions seen before; null if estimates are not
+	 *         cached
+	 */
+	public TranspositionCache<Estimate> getCache() {
+		return cache;
+	}
+
+	/**
+	 * Estimates the win probability of every seat. The game is only read, and
+	 * must not be played while the estimate is running.
+	 *
+	 * @param game The game to estimate
+	 * @param seed The seed from which the random stream of every rollout is
+	 *             derived
+	 * @return The estimate; the cached one if the position has been estimated
+	 *         before
+	 */
+	public Estimate estimate(MonopolyGame game, long seed) {
+		if (cache != null)
+			return cache.computeIfAbsent(game.getPositionHash(), hash -> play(game, seed));
+		return play(game, seed);
+	}
+
+	/**
+	 * Plays rollouts until the leader is clear or the budget is spent
+	 *
+	 * @param game The game to estimate
+	 * @param seed The seed from which the random stream of every rollout is
+	 *             derived
+	 * @return The estimate
+	 */
+	private Estimate play(MonopolyGame game, long seed) {
+		int seats = game.getState().getSeats();
+		long[] wins = new long[seats];
+		long rollouts = 0;
+		long failed = 0;
+		Estimate estimate = new Estimate(wins, 0, 0, z);
+
+		while (rollouts < maxRollouts) {
+			long next = Math.min(maxRollouts, rollouts + minRollouts);
+			long[] won = pool.invoke(new RolloutTask(game, seed, rollouts, next));
+			for (int seat = 0; seat < seats; seat++)
+				wins[seat] += won[seat];
+			failed += won[seats];
+			rollouts = next;
+
+			estimate = new Estimate(wins.clone(), rollouts - failed, failed, z);
+			if (estimate.isLeaderClear())
+				break;
+		}
+
+		return estimate;
+	}
+
+	/**
+	 * Plays a single rollout
+	 *
+	 * @param game The game to roll out from
+	 * @param seed The seed of the rollout's random stream
+	 * @return The seat which won the rollout, GameState.NO_OWNER if nobody is
+	 *         left, or FAILED if the rollout threw
+	 */
+	int rollout(MonopolyGame game, long seed) {
+		MonopolyGame fork = game.fork(seed);
+		fork.getLogger().setPrintingEnabled(false);
+		fork.getLogger().setLevel(Logger.Level.OFF);
+
+		int limit = fork.getTurnsPlayed() + horizon;
+		try {
+			while (fork.getPhase() != TurnPhase.END || fork.isRunning() && fork.getTurnsPlayed() < limit)
+				fork.step();
+		} catch (RuntimeException e) {
+			return FAILED;
+		}
+
+		int winner = fork.getWinnerSeat();
+		return winner != GameState.NO_OWNER ? winner : richestSeat(fork);
+	}
+
+	/**
+	 * @param game A game
+	 * @return The active seat with the highest net worth (the lowest seat on a
+	 *         tie), or GameState.NO_OWNER if no seat is active
+	 */
+	private static int richestSeat(MonopolyGame game) {
+		GameState state = game.getState();
+		int richest = GameState.NO_OWNER;
+		long best = Long.MIN_VALUE;
+
+		for (int active = state.getActiveSeats(); active != 0; active &= active - 1) {
+			int seat = Integer.numberOfTrailingZeros(active);
+			long worth = state.getBalance(seat);
+
+			for (long rest = state.getOwnershipMask(seat); rest != 0; rest &= rest - 1) {
+				int tile = Long.numberOfTrailingZeros(rest);
+				OwnableTile asset = (OwnableTile) game.tileAt(tile);
+				worth += state.isMortgaged(tile) ? asset.getPropertyValue() / 2 : asset.getPropertyValue();
+				if (asset.getType() == Tile.TileType.PROPERTY)
+					worth += (long) state.getHouses(tile) * ((PropertyTile) asset).getHousePrice();
+			}
+
+			if (worth > best) {
+				best = worth;
+				richest = seat;
+			}
+		}
+
+		return richest;
+	}
+
+	/**
+	 * Plays rollouts [from, to) and counts the rollouts won by each seat, followed
+	 * by the number which failed
+	 */
+	private class RolloutTask extends RecursiveTask<long[]> {
+		private static final long serialVersionUID = 1L;
+
+		private final MonopolyGame game;
+		private final long seed;
+		private final long from;
+		private final long to;
+
+		RolloutTask(MonopolyGame game, long seed, long from, long to) {
+			this.game = game;
+			this.seed = seed;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected long[] compute() {
+			if (to - from <= GRAIN) {
+				int seats = game.getState().getSeats();
+				long[] won = new long[seats + 1];
+				for (long i = from; i < to; i++) {
+					int winner = rollout(game, MonopolyGame.seedFor(seed, i));
+					if (winner == FAILED)
+						won[seats]++;
+					else if (winner != GameState.NO_OWNER)
+						won[winner]++;
+				}
+				return won;
+			}
+
+			long mid = (from + to) >>> 1;
+			RolloutTask left = new RolloutTask(game, seed, from, mid);
+			RolloutTask right = new RolloutTask(game, seed, mid, to);
+			right.fork();
+			long[] won = left.compute();
+			long[] other = right.join();
+			for (int seat = 0; seat < won.length; seat++)
+				won[seat] += other[seat];
+			return won;
+		}
+	}
+}
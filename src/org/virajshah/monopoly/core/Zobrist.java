@@ -0,0 +1,62 @@
+package org.virajshah.monopoly.core;
+
+/**
+ * The random keys of the Zobrist hash of a game state. The hash is the XOR of
+ * the key of every feature of the state (who owns each tile, the houses on it,
+ * whether it is mortgaged, every seat's position, balance bucket and jail
+ * state, and which seats have gone bankrupt), so a change of one feature
+ * updates the hash with two XORs.
+ *
+ * Keys are derived on demand by mixing the feature with SplitMix64 instead of
+ * being read from a table, so there is no limit on the number of seats or the
+ * size of a balance. Distinct features always get distinct keys.
+ *
+ * @author Viraj Shah
+ */
+final class Zobrist {
+	/**
+	 * The width of a balance bucket; balances within the same bucket hash alike
+	 */
+	static final int BALANCE_BUCKET = 100;
+
+	/**
+	 * The seed every key is derived from
+	 */
+	private static final long SEED = 0x5DEECE66DL;
+
+	// The kinds of feature
+	static final int OWNER = 1;
+	static final int HOUSES = 2;
+	static final int MORTGAGED = 3;
+	static final int POSITION = 4;
+	static final int BALANCE = 5;
+	static final int IN_JAIL = 6;
+	static final int TURNS_IN_JAIL = 7;
+	static final int JAIL_CARDS = 8;
+	static final int BANKRUPT = 9;
+	static final int TO_MOVE = 10;
+	static final int STRATEGY = 11;
+
+	private Zobrist() {
+	}
+
+	/**
+	 * @param feature The kind of feature
+	 * @param index   The tile index or seat number the feature belongs to
+	 * @param value   The value of the feature
+	 * @return The key of the feature
+	 */
+	static long key(int feature, int index, int value) {
+		return MonopolyGame.seedFor(SEED,
+				(long) feature << 56 ^ (long) (index & 0xFFFFFF) << 32 ^ (value & 0xFFFFFFFFL));
+	}
+
+	/**
+	 * @param seat    The seat number
+	 * @param balance The balance of the seat
+	 * @return The key of the seat's balance bucket
+	 */
+	static long balanceKey(int seat, int balance) {
+		return key(BALANCE, seat, Math.floorDiv(balance, BALANCE_BUCKET));
+	}
+}
@@ -0,0 +1,264 @@
+package org.virajshah.monopoly.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.virajshah.monopoly.core.Card;
+import org.virajshah.monopoly.core.GameObserver;
+import org.virajshah.monopoly.core.MonopolyGame;
+
+/**
+ * Writes every event of a game to a compact binary journal in a memory-mapped
+ * file. Each event is a one byte tag followed by a few bytes of fixed-width
+ * fields, so a typical event takes 3 to 6 bytes. The journal records both the
+ * turn events (rolls, moves, purchases, rent, cards, trades, bankruptcies) and
+ * every change to the game state, which lets JournalReplayer rebuild the game
+ * at any turn without playing it again.
+ *
+ * Usage: GameJournal.record(game, file) before the first turn, play the game,
+ * then close the journal.
+ *
+ * @author Viraj Shah
+ */
+public class GameJournal implements GameObserver, Closeable {
+	/**
+	 * Identifies a journal file ("MJN1")
+	 */
+	static final int MAGIC = 0x4d4a4e31;
+
+	// Event tags; 0 marks the end of the journal
+	static final byte END = 0;
+	static final byte TURN = 1;
+	static final byte ROLL = 2;
+	static final byte MOVE = 3;
+	static final byte PURCHASE = 4;
+	static final byte RENT = 5;
+	static final byte CARD = 6;
+	static final byte TRADE = 7;
+	static final byte BANKRUPTCY = 8;
+	static final byte OWNER = 9;
+	static final byte HOUSES = 10;
+	static final byte MORTGAGE = 11;
+	static final byte BALANCE = 12;
+	static final byte POSITION = 13;
+	static final byte IN_JAIL = 14;
+	static final byte TURNS_IN_JAIL = 15;
+	static final byte JAIL_CARDS = 16;
+	static final byte POOL = 17;
+
+	/**
+	 * The size of the header: magic, seed and number of seats
+	 */
+	static final int HEADER_SIZE = 13;
+
+	/**
+	 * Card codes of community chest cards have this bit set; the rest of the code
+	 * is the index of the card in its deck
+	 */
+	static final int COMMUNITY_CHEST = 0x80;
+
+	/**
+	 * The number of bytes mapped at a time
+	 */
+	private static final int CHUNK_SIZE = 1 << 20;
+
+	/**
+	 * The size of the largest event
+	 */
+	private static final int MAX_EVENT_SIZE = 10;
+
+	/**
+	 * The journal file
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * The currently mapped region of the file
+	 */
+	private MappedByteBuffer buffer;
+
+	/**
+	 * The offset in the file at which the current region starts
+	 */
+	private long regionStart;
+
+	/**
+	 * Creates a journal file and starts writing to it
+	 *
+	 * @param file  The journal file (overwritten if it exists)
+	 * @param seed  The seed of the game
+	 * @param seats The number of seats in the game
+	 * @throws IOException If the file cannot be created
+	 */
+	public GameJournal(Path file, long seed, int seats) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		regionStart = 0;
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, CHUNK_SIZE);
+
+		buffer.putInt(MAGIC);
+		buffer.putLong(seed);
+		buffer.put((byte) seats);
+	}
+
+	/**
+	 * Starts journaling a game which has not played a turn yet
+	 *
+	 * @param game The game to journal
+	 * @param file The journal file (overwritten if it exists)
+	 * @return The journal, which is now observing the game
+	 * @throws IOException If the file cannot be created
+	 */
+	public static GameJournal record(MonopolyGame game, Path file) throws IOException {
+		if (game.getTurnsPlayed() != 0)
+			throw new IllegalStateException("A game can only be journaled from its first turn");
+
+		GameJournal journal = new GameJournal(file, game.getSeed(), game.getState().getSeats());
+		game.getState().setObserver(journal);
+		return journal;
+	}
+
+	/**
+	 * Makes sure there is room for one more event, mapping the next region of the
+	 * file if the current one is full
+	 */
+	private MappedByteBuffer reserve() {
+		if (buffer.remaining() < MAX_EVENT_SIZE) {
+			regionStart += buffer.position();
+			try {
+				buffer = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, CHUNK_SIZE);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return buffer;
+	}
+
+	/**
+	 * Writes an event with three single byte fields
+	 */
+	private void put(byte tag, int a, int b, int c) {
+		reserve().put(tag).put((byte) a).put((byte) b).put((byte) c);
+	}
+
+	/**
+	 * Writes an event with two single byte fields
+	 */
+	private void put(byte tag, int a, int b) {
+		reserve().put(tag).put((byte) a).put((byte) b);
+	}
+
+	/**
+	 * @return The number of bytes written so far
+	 */
+	public long size() {
+		return regionStart + buffer.position();
+	}
+
+	@Override
+	public void onTurnStart(int turn, int seat) {
+		reserve().put(TURN).putInt(turn).put((byte) seat);
+	}
+
+	@Override
+	public void onRoll(int seat, int die1, int die2) {
+		put(ROLL, seat, die1, die2);
+	}
+
+	@Override
+	public void onMove(int seat, int from, int to) {
+		put(MOVE, seat, from, to);
+	}
+
+	@Override
+	public void onPurchase(int seat, int tile) {
+		put(PURCHASE, seat, tile);
+	}
+
+	@Override
+	public void onRent(int payer, int owner, int tile, int amount) {
+		reserve().put(RENT).put((byte) payer).put((byte) owner).put((byte) tile).putShort((short) amount);
+	}
+
+	@Override
+	public void onCardDrawn(int seat, int tile, Card card) {
+		int code = Card.getChanceDeck().indexOf(card);
+		if (code < 0)
+			code = COMMUNITY_CHEST | Card.getCommunityChestDeck().indexOf(card);
+		put(CARD, seat, tile, code);
+	}
+
+	@Override
+	public void onTrade(int sender, int receiver, int senderTile, int receiverTile, int cash) {
+		reserve().put(TRADE).put((byte) sender).put((byte) receiver).put((byte) senderTile)
+				.put((byte) receiverTile).putInt(cash);
+	}
+
+	@Override
+	public void onBankruptcy(int seat) {
+		reserve().put(BANKRUPTCY).put((byte) seat);
+	}
+
+	@Override
+	public void onOwnerChanged(int tile, int seat) {
+		put(OWNER, tile, seat);
+	}
+
+	@Override
+	public void onHousesChanged(int tile, int houses) {
+		put(HOUSES, tile, houses);
+	}
+
+	@Override
+	public void onMortgageChanged(int tile, boolean mortgaged) {
+		put(MORTGAGE, tile, mortgaged ? 1 : 0);
+	}
+
+	@Override
+	public void onBalanceChanged(int seat, int balance) {
+		reserve().put(BALANCE).put((byte) seat).putInt(balance);
+	}
+
+	@Override
+	public void onPositionChanged(int seat, int position) {
+		put(POSITION, seat, position);
+	}
+
+	@Override
+	public void onInJailChanged(int seat, boolean inJail) {
+		put(IN_JAIL, seat, inJail ? 1 : 0);
+	}
+
+	@Override
+	public void onTurnsInJailChanged(int seat, int turns) {
+		put(TURNS_IN_JAIL, seat, turns);
+	}
+
+	@Override
+	public void onGetOutOfJailCardsChanged(int seat, int cards) {
+		put(JAIL_CARDS, seat, cards);
+	}
+
+	@Override
+	public void onFreeParkingPoolChanged(int amount) {
+		reserve().put(POOL).putInt(amount);
+	}
+
+	/**
+	 * Marks the end of the journal and trims the file to the bytes written
+	 */
+	@Override
+	public void close() throws IOException {
+		long length = size();
+		reserve().put(END);
+		buffer.force();
+		buffer = null;
+		channel.truncate(length + 1);
+		channel.close();
+	}
+}
@@ -0,0 +1,323 @@
+package org.virajshah.monopoly.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.virajshah.monopoly.core.Card;
+import org.virajshah.monopoly.core.GameObserver;
+import org.virajshah.monopoly.core.GameState;
+import org.virajshah.monopoly.core.MonopolyGame;
+
+/**
+ * Reads a journal written by GameJournal. The events can be streamed into any
+ * GameObserver, and a game can be rebuilt as it stood after any turn by
+ * applying the recorded state changes to a fresh game with the same seed,
+ * which is far cheaper than playing the turns again.
+ *
+ * @author Viraj Shah
+ */
+public class JournalReplayer {
+	/**
+	 * The journal file, mapped read only
+	 */
+	private final MappedByteBuffer journal;
+
+	/**
+	 * The seed of the journaled game
+	 */
+	private final long seed;
+
+	/**
+	 * The number of seats in the journaled game
+	 */
+	private final int seats;
+
+	/**
+	 * The offset of the event which starts turn i + 1, at [i]
+	 */
+	private final int[] turnOffsets;
+
+	/**
+	 * The seat which played turn i + 1, at [i]
+	 */
+	private final byte[] turnSeats;
+
+	/**
+	 * The offset of the end of the journal
+	 */
+	private final int end;
+
+	/**
+	 * Opens a journal and indexes its turns
+	 *
+	 * @param file The journal file
+	 * @throws IOException If the file cannot be read or is not a journal
+	 */
+	public JournalReplayer(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE)
+				throw new IOException("Journal is too large to replay: " + file);
+			journal = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		if (journal.remaining() < GameJournal.HEADER_SIZE || journal.getInt(0) != GameJournal.MAGIC)
+			throw new IOException("Not a game journal: " + file);
+		seed = journal.getLong(4);
+		seats = journal.get(12);
+
+		int[] offsets = new int[256];
+		byte[] turnSeatsFound = new byte[256];
+		int turns = 0;
+		int offset = GameJournal.HEADER_SIZE;
+
+		while (offset < journal.limit() && journal.get(offset) != GameJournal.END) {
+			if (journal.get(offset) == GameJournal.TURN) {
+				if (turns == offsets.length) {
+					offsets = Arrays.copyOf(offsets, turns * 2);
+					turnSeatsFound = Arrays.copyOf(turnSeatsFound, turns * 2);
+				}
+				offsets[turns] = offset;
+				turnSeatsFound[turns] = journal.get(offset + 5);
+				turns++;
+			}
+			offset += sizeOf(journal.get(offset));
+		}
+
+		end = offset;
+		turnOffsets = Arrays.copyOf(offsets, turns);
+		turnSeats = Arrays.copyOf(turnSeatsFound, turns);
+	}
+
+	/**
+	 * @param tag An event tag
+	 * @return The size of the event, tag included
+	 */
+	private static int sizeOf(byte tag) {
+		switch (tag) {
+		case GameJournal.BANKRUPTCY:
+			return 2;
+		case GameJournal.PURCHASE:
+		case GameJournal.OWNER:
+		case GameJournal.HOUSES:
+		case GameJournal.MORTGAGE:
+		case GameJournal.POSITION:
+		case GameJournal.IN_JAIL:
+		case GameJournal.TURNS_IN_JAIL:
+		case GameJournal.JAIL_CARDS:
+			return 3;
+		case GameJournal.ROLL:
+		case GameJournal.MOVE:
+		case GameJournal.CARD:
+			return 4;
+		case GameJournal.POOL:
+			return 5;
+		case GameJournal.TURN:
+		case GameJournal.BALANCE:
+		case GameJournal.RENT:
+			return 6;
+		case GameJournal.TRADE:
+			return 9;
+		default:
+			throw new IllegalStateException("Corrupt journal: unknown event " + tag);
+		}
+	}
+
+	/**
+	 * @return The seed of the journaled game
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @return The number of seats in the journaled game
+	 */
+	public int getSeats() {
+		return seats;
+	}
+
+	/**
+	 * @return The number of turns in the journal
+	 */
+	public int getTurns() {
+		return turnOffsets.length;
+	}
+
+	/**
+	 * @param turn A number of turns played
+	 * @return The offset at which the events of the following turn start
+	 */
+	private int offsetAfter(int turn) {
+		return turn < turnOffsets.length ? turnOffsets[turn] : end;
+	}
+
+	/**
+	 * Streams the journaled events into an observer, from the start of the game
+	 * to the end of a turn
+	 *
+	 * @param turn     The last turn to stream (0 streams nothing)
+	 * @param observer The observer to send the events to
+	 */
+	public void replay(int turn, GameObserver observer) {
+		int stop = offsetAfter(turn);
+		int offset = GameJournal.HEADER_SIZE;
+
+		while (offset < stop) {
+			byte tag = journal.get(offset);
+			int a = offset + 1;
+
+			switch (tag) {
+			case GameJournal.TURN:
+				observer.onTurnStart(journal.getInt(a), journal.get(a + 4));
+				break;
+			case GameJournal.ROLL:
+				observer.onRoll(journal.get(a), journal.get(a + 1), journal.get(a + 2));
+				break;
+			case GameJournal.MOVE:
+				observer.onMove(journal.get(a), journal.get(a + 1), journal.get(a + 2));
+				break;
+			case GameJournal.PURCHASE:
+				observer.onPurchase(journal.get(a), journal.get(a + 1));
+				break;
+			case GameJournal.RENT:
+				observer.onRent(journal.get(a), journal.get(a + 1), journal.get(a + 2), journal.getShort(a + 3));
+				break;
+			case GameJournal.CARD:
+				int code = journal.get(a + 2) & 0xff;
+				Card card = (code & GameJournal.COMMUNITY_CHEST) != 0
+						? Card.getCommunityChestDeck().get(code & ~GameJournal.COMMUNITY_CHEST)
+						: Card.getChanceDeck().get(code);
+				observer.onCardDrawn(journal.get(a), journal.get(a + 1), card);
+				break;
+			case GameJournal.TRADE:
+				observer.onTrade(journal.get(a), journal.get(a + 1), journal.get(a + 2), journal.get(a + 3),
+						journal.getInt(a + 4));
+				break;
+			case GameJournal.BANKRUPTCY:
+				observer.onBankruptcy(journal.get(a));
+				break;
+			case GameJournal.OWNER:
+				observer.onOwnerChanged(journal.get(a), journal.get(a + 1));
+				break;
+			case GameJournal.HOUSES:
+				observer.onHousesChanged(journal.get(a), journal.get(a + 1));
+				break;
+			case GameJournal.MORTGAGE:
+				observer.onMortgageChanged(journal.get(a), journal.get(a + 1) != 0);
+				break;
+			case GameJournal.BALANCE:
+				observer.onBalanceChanged(journal.get(a), journal.getInt(a + 1));
+				break;
+			case GameJournal.POSITION:
+				observer.onPositionChanged(journal.get(a), journal.get(a + 1));
+				break;
+			case GameJournal.IN_JAIL:
+				observer.onInJailChanged(journal.get(a), journal.get(a + 1) != 0);
+				break;
+			case GameJournal.TURNS_IN_JAIL:
+				observer.onTurnsInJailChanged(journal.get(a), journal.get(a + 1));
+				break;
+			case GameJournal.JAIL_CARDS:
+				observer.onGetOutOfJailCardsChanged(journal.get(a), journal.get(a + 1));
+				break;
+			case GameJournal.POOL:
+				observer.onFreeParkingPoolChanged(journal.getInt(a));
+				break;
+			default:
+				break;
+			}
+
+			offset += sizeOf(tag);
+		}
+	}
+
+	/**
+	 * Rebuilds the journaled game as it stood at the end of a turn. The board,
+	 * the balances, the positions, the jail status and the Free Parking pool are
+	 * restored; the random stream and the decks start over, so playing on from
+	 * the rebuilt game does not repeat the original game.
+	 *
+	 * @param turn The number of turns to replay (0 gives the starting position)
+	 * @return The rebuilt game
+	 */
+	public MonopolyGame rebuild(int turn) {
+		turn = Math.min(turn, getTurns());
+
+		MonopolyGame game = new MonopolyGame(seed);
+		StateApplier applier = new StateApplier(game.getState());
+		replay(turn, applier);
+		game.resumeAt(turn, turn > 0 ? turnSeats[turn - 1] : -1, applier.bankruptSeats);
+		return game;
+	}
+
+	/**
+	 * Writes journaled state changes straight into a game state
+	 */
+	private static class StateApplier implements GameObserver {
+		private final GameState state;
+
+		/**
+		 * Bit i is set once seat i has gone bankrupt
+		 */
+		private int bankruptSeats;
+
+		StateApplier(GameState state) {
+			this.state = state;
+		}
+
+		@Override
+		public void onBankruptcy(int seat) {
+			bankruptSeats |= 1 << seat;
+		}
+
+		@Override
+		public void onOwnerChanged(int tile, int seat) {
+			state.setOwner(tile, seat);
+		}
+
+		@Override
+		public void onHousesChanged(int tile, int houses) {
+			state.setHouses(tile, houses);
+		}
+
+		@Override
+		public void onMortgageChanged(int tile, boolean mortgaged) {
+			state.setMortgaged(tile, mortgaged);
+		}
+
+		@Override
+		public void onBalanceChanged(int seat, int balance) {
+			state.setBalance(seat, balance);
+		}
+
+		@Override
+		public void onPositionChanged(int seat, int position) {
+			state.setPosition(seat, position);
+		}
+
+		@Override
+		public void onInJailChanged(int seat, boolean inJail) {
+			state.setInJail(seat, inJail);
+		}
+
+		@Override
+		public void onTurnsInJailChanged(int seat, int turns) {
+			state.setTurnsInJail(seat, turns);
+		}
+
+		@Override
+		public void onGetOutOfJailCardsChanged(int seat, int cards) {
+			state.setGetOutOfJailCards(seat, cards);
+		}
+
+		@Override
+		public void onFreeParkingPoolChanged(int amount) {
+			state.getLedger().clearPool();
+			state.getLedger().addToPool(amount);
+		}
+	}
+}
@@ -1,8 +1,17 @@
 package org.virajshah.monopoly.logs;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
+ * A per-game logger built for the simulation hot path. Messages are templates
+ * with %s (object) and %d (int) placeholders whose arguments are passed
+ * separately, so nothing is formatted unless it is actually printed or read
+ * back. Messages below the logger's level are dropped before any work is done.
+ * Object arguments are kept by reference and rendered later, so pass only
+ * immutable values (such as names); state which changes, such as a seat or an
+ * amount, is passed as an int. The most recent messages are kept in a
+ * fixed-size ring buffer for post-mortems instead of an ever-growing list.
  * 
  * @author Viraj Shah
  *
@@ -48,22 +57,47 @@ public class Logger {
 	 */
 	public static final String ANSI_CYAN = "\u001B[36m";
 
+	/**
+	 * The severity of a log message; setting a logger to a level drops every
+	 * message below it
+	 */
+	public enum Level {
+		INFO, WARN, ERROR, OFF
+	}
+
+	/**
+	 * The default number of recent messages kept in the ring buffer
+	 */
+	public static final int DEFAULT_CAPACITY = 256;
+
 	/**
 	 * Logs will be printed if true
 	 */
 	private boolean printingEnabled;
 
 	/**
-	 * The list of logs
+	 * Messages below this level are dropped
+	 */
+	private Level level;
+
+	// The ring buffer of recent messages, one array per field
+	private final Level[] levels;
+	private final String[] colors;
+	private final String[] templates;
+	private final Object[] objectArgs;
+	private final int[] intArgs;
+
+	/**
+	 * The total number of messages recorded; the next message goes to slot
+	 * (recorded % capacity)
 	 */
-	private ArrayList<String> logs;
+	private long recorded;
 
 	/**
 	 * Default constructor (printingEnabled=true)
 	 */
 	public Logger() {
-		this.printingEnabled = true;
-		this.logs = new ArrayList<>();
+		this(true);
 	}
 
 	/**
@@ -72,8 +106,85 @@ public class Logger {
 	 * @param printingEnabled Whether printing should be enabled
 	 */
 	public Logger(boolean printingEnabled) {
+		this(printingEnabled, Level.INFO, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a logger object
+	 * 
+	 * @param printingEnabled Whether printing should be enabled
+	 * @param level           Messages below this level are dropped
+	 * @param capacity        The number of recent messages to keep
+	 */
+	public Logger(boolean printingEnabled, Level level, int capacity) {
 		this.printingEnabled = printingEnabled;
-		this.logs = new ArrayList<>();
+		this.level = level;
+		levels = new Level[capacity];
+		colors = new String[capacity];
+		templates = new String[capacity];
+		objectArgs = new Object[capacity * 3];
+		intArgs = new int[capacity * 3];
+		recorded = 0;
+	}
+
+	/**
+	 * @param messageLevel The level of a message
+	 * @return True if messages of the level are recorded
+	 */
+	public boolean isEnabled(Level messageLevel) {
+		return messageLevel.compareTo(level) >= 0 && messageLevel != Level.OFF;
+	}
+
+	/**
+	 * Records a message in the ring buffer, and prints it if printing is enabled
+	 */
+	private void log(Level messageLevel, String color, String template, Object a, Object b, Object c, int x,
+			int y, int z) {
+		int slot = (int) (recorded++ % levels.length);
+		levels[slot] = messageLevel;
+		colors[slot] = color;
+		templates[slot] = template;
+		objectArgs[slot * 3] = a;
+		objectArgs[slot * 3 + 1] = b;
+		objectArgs[slot * 3 + 2] = c;
+		intArgs[slot * 3] = x;
+		intArgs[slot * 3 + 1] = y;
+		intArgs[slot * 3 + 2] = z;
+
+		if (printingEnabled)
+			System.out.println(render(slot));
+	}
+
+	/**
+	 * Formats the message in a slot of the ring buffer. Each %s takes the next
+	 * object argument, each %d the next int argument.
+	 */
+	private String render(int slot) {
+		String template = templates[slot];
+		StringBuilder out = new StringBuilder(template.length() + 32);
+		int objects = 0;
+		int ints = 0;
+
+		if (colors[slot] != null)
+			out.append(colors[slot]);
+
+		for (int i = 0; i < template.length(); i++) {
+			char ch = template.charAt(i);
+			if (ch == '%' && i + 1 < template.length() && template.charAt(i + 1) == 's' && objects < 3) {
+				out.append(objectArgs[slot * 3 + objects++]);
+				i++;
+			} else if (ch == '%' && i + 1 < template.length() && template.charAt(i + 1) == 'd' && ints < 3) {
+				out.append(intArgs[slot * 3 + ints++]);
+				i++;
+			} else {
+				out.append(ch);
+			}
+		}
+
+		if (colors[slot] != null)
+			out.append(ANSI_RESET);
+
+		return out.toString();
 	}
 
 	/**
@@ -82,8 +193,70 @@ public class Logger {
 	 * @param message The message to be logged
 	 */
 	public void info(String message) {
-		logs.add(message);
-		printLastLog();
+		if (isEnabled(Level.INFO))
+			log(Level.INFO, null, "%s", message, null, null, 0, 0, 0);
+	}
+
+	/**
+	 * Logs info to the logger
+	 * 
+	 * @param template The message, with a %s placeholder
+	 * @param a        The argument of the placeholder
+	 */
+	public void info(String template, Object a) {
+		if (isEnabled(Level.INFO))
+			log(Level.INFO, null, template, a, null, null, 0, 0, 0);
+	}
+
+	/**
+	 * Logs info to the logger
+	 * 
+	 * @param template The message, with two %s placeholders
+	 * @param a        The argument of the first placeholder
+	 * @param b        The argument of the second placeholder
+	 */
+	public void info(String template, Object a, Object b) {
+		if (isEnabled(Level.INFO))
+			log(Level.INFO, null, template, a, b, null, 0, 0, 0);
+	}
+
+	/**
+	 * Logs info to the logger
+	 * 
+	 * @param template The message, with three %s placeholders
+	 * @param a        The argument of the first placeholder
+	 * @param b        The argument of the second placeholder
+	 * @param c        The argument of the third placeholder
+	 */
+	public void info(String template, Object a, Object b, Object c) {
+		if (isEnabled(Level.INFO))
+			log(Level.INFO, null, template, a, b, c, 0, 0, 0);
+	}
+
+	/**
+	 * Logs info to the logger
+	 * 
+	 * @param template The message, with a %s and a %d placeholder
+	 * @param a        The argument of the %s placeholder
+	 * @param x        The argument of the %d placeholder
+	 */
+	public void info(String template, Object a, int x) {
+		if (isEnabled(Level.INFO))
+			log(Level.INFO, null, template, a, null, null, x, 0, 0);
+	}
+
+	/**
+	 * Logs info to the logger
+	 * 
+	 * @param template The message, with a %s and three %d placeholders
+	 * @param a        The argument of the %s placeholder
+	 * @param x        The argument of the first %d placeholder
+	 * @param y        The argument of the second %d placeholder
+	 * @param z        The argument of the third %d placeholder
+	 */
+	public void info(String template, Object a, int x, int y, int z) {
+		if (isEnabled(Level.INFO))
+			log(Level.INFO, null, template, a, null, null, x, y, z);
 	}
 
 	/**
@@ -92,7 +265,8 @@ public class Logger {
 	 * @param message The message to be logged
 	 */
 	public void infoGreen(String message) {
-		logs.add(ANSI_GREEN + message + ANSI_RESET);
+		if (isEnabled(Level.INFO))
+			log(Level.INFO, ANSI_GREEN, "%s", message, null, null, 0, 0, 0);
 	}
 
 	/**
@@ -101,7 +275,8 @@ public class Logger {
 	 * @param message The message to be logged
 	 */
 	public void infoBlue(String message) {
-		logs.add(ANSI_BLUE + message + ANSI_RESET);
+		if (isEnabled(Level.INFO))
+			log(Level.INFO, ANSI_BLUE, "%s", message, null, null, 0, 0, 0);
 	}
 
 	/**
@@ -110,7 +285,8 @@ public class Logger {
 	 * @param message The message to be logged
 	 */
 	public void infoPurple(String message) {
-		logs.add(ANSI_PURPLE + message + ANSI_RESET);
+		if (isEnabled(Level.INFO))
+			log(Level.INFO, ANSI_PURPLE, "%s", message, null, null, 0, 0, 0);
 	}
 
 	/**
@@ -119,7 +295,8 @@ public class Logger {
 	 * @param message The message to be logged
 	 */
 	public void infoCyan(String message) {
-		logs.add(ANSI_CYAN + message + ANSI_RESET);
+		if (isEnabled(Level.INFO))
+			log(Level.INFO, ANSI_CYAN, "%s", message, null, null, 0, 0, 0);
 	}
 
 	/**
@@ -128,8 +305,8 @@ public class Logger {
 	 * @param message The message to be logged
 	 */
 	public void warn(String message) {
-		logs.add(ANSI_YELLOW + message + ANSI_RESET);
-		printLastLog();
+		if (isEnabled(Level.WARN))
+			log(Level.WARN, ANSI_YELLOW, "%s", message, null, null, 0, 0, 0);
 	}
 
 	/**
@@ -138,17 +315,38 @@ public class Logger {
 	 * @param message The message to be logged
 	 */
 	public void error(String message) {
-		logs.add(ANSI_RED + message + ANSI_RESET);
-		printLastLog();
+		if (isEnabled(Level.ERROR))
+			log(Level.ERROR, ANSI_RED, "%s", message, null, null, 0, 0, 0);
+	}
+
+	/**
+	 * Logs an error to the logger (in red)
+	 * 
+	 * @param template The message, with a %s placeholder
+	 * @param a        The argument of the placeholder
+	 */
+	public void error(String template, Object a) {
+		if (isEnabled(Level.ERROR))
+			log(Level.ERROR, ANSI_RED, template, a, null, null, 0, 0, 0);
 	}
 
 	/**
-	 * Prints the last log from the list of logs
+	 * @return The most recent messages still in the ring buffer, oldest first
 	 */
-	private void printLastLog() {
-		if (printingEnabled) {
-			System.out.println(logs.get(logs.size() - 1));
-		}
+	public List<String> getRecentLogs() {
+		int size = (int) Math.min(recorded, levels.length);
+		ArrayList<String> logs = new ArrayList<>(size);
+		for (long i = recorded - size; i < recorded; i++)
+			logs.add(render((int) (i % levels.length)));
+		return logs;
+	}
+
+	/**
+	 * @return The total number of messages recorded, including those which have
+	 *         since left the ring buffer
+	 */
+	public long getRecordedCount() {
+		return recorded;
 	}
 
 	/**
@@ -164,4 +362,25 @@ public class Logger {
 	public void setPrintingEnabled(boolean printingEnabled) {
 		this.printingEnabled = printingEnabled;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * @return The number of recent messages kept
+	 */
+	public int getCapacity() {
+		return levels.length;
+	}
+
+	/**
+	 * @return Messages below this level are dropped
+	 */
+	public Level getLevel() {
+		return level;
+	}
+
+	/**
+	 * @param level Messages below this level are dropped
+	 */
+	public void setLevel(Level level) {
+		this.level = level;
+	}
+}
@@ -0,0 +1,375 @@
+package org.virajshah.monopoly.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+import org.virajshah.monopoly.core.GameState;
+import org.virajshah.monopoly.core.MonopolyGame;
+
+/**
+ * Streams the outcome of every game to a CSV or NDJSON file, optionally
+ * gzipped, with one compact row per finished game and, if asked for, one row
+ * per turn. Simulation threads only format a row and hand it to a bounded
+ * queue; a single writer thread drains the queue in batches and writes them
+ * through a buffered channel. Turn rows are best effort: once the queue is
+ * three quarters full they are dropped and counted (see getDroppedTurnRows),
+ * which keeps the last quarter of the queue for game rows. Game rows are never
+ * dropped, so game() blocks the simulation thread while the queue is full,
+ * until the writer makes room.
+ *
+ * The writer is a daemon thread, so close() must be called to write the last
+ * rows; it fails if any game row could not be written.
+ *
+ * Every row has the same columns: kind ("game" or "turn"), game index, seed,
+ * turn (the turns played for a game row), seat (the player who just played;
+ * empty for a game row), winner (empty for a turn row, -1 if the game did not
+ * finish), then every seat's balance and every seat's number of tiles.
+ *
+ * @author Viraj Shah
+ */
+public class OutcomeExporter implements Closeable {
+	/**
+	 * The format of the exported rows
+	 */
+	public enum Format {
+		/**
+		 * Comma separated values with a header line
+		 */
+		CSV,
+
+		/**
+		 * One JSON object per line
+		 */
+		NDJSON
+	}
+
+	/**
+	 * The default number of rows the queue holds
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 1 << 16;
+
+	/**
+	 * The size of the buffer rows are written through
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * The most rows taken off the queue at once
+	 */
+	private static final int DRAIN_LIMIT = 1024;
+
+	/**
+	 * How long a game row waits for room in the queue before checking that the
+	 * writer is still running
+	 */
+	private static final long WAIT_MILLIS = 100;
+
+	/**
+	 * Put on the queue by close() to stop the writer
+	 */
+	private static final String END = new String();
+
+	/**
+	 * The format of the exported rows
+	 */
+	private final Format format;
+
+	/**
+	 * True if a row is exported after every turn
+	 */
+	private final boolean perTurn;
+
+	/**
+	 * The number of seats in every game
+	 */
+	private final int seats;
+
+	/**
+	 * The rows waiting to be written
+	 */
+	private final BlockingQueue<String> queue;
+
+	/**
+	 * The number of free places in the queue kept for game rows
+	 */
+	private final int reserved;
+
+	/**
+	 * The channel rows are written to
+	 */
+	private final WritableByteChannel channel;
+
+	/**
+	 * The thread which writes the rows
+	 */
+	private final Thread writer;
+
+	/**
+	 * The number of turn rows dropped because the queue was full
+	 */
+	private final LongAdder droppedTurns = new LongAdder();
+
+	/**
+	 * The number of game rows which could not be queued because the writer had
+	 * stopped or the thread was interrupted
+	 */
+	private final LongAdder lostGames = new LongAdder();
+
+	/**
+	 * The exception which stopped the writer; null if it has not failed
+	 */
+	private volatile IOException failure;
+
+	/**
+	 * Opens an exporter with the default queue capacity
+	 *
+	 * @param file    The file to export to (overwritten if it exists)
+	 * @param format  The format of the exported rows
+	 * @param gzip    True to gzip the file
+	 * @param perTurn True to also export a row after every turn
+	 * @param seats   The number of seats in every game
+	 * @throws IOException If the file cannot be created
+	 */
+	public OutcomeExporter(Path file, Format format, boolean gzip, boolean perTurn, int seats) throws IOException {
+		this(file, format, gzip, perTurn, seats, DEFAULT_QUEUE_CAPACITY);
+	}
+
+	/**
+	 * Opens an exporter
+	 *
+	 * @param file          The file to export to (overwritten if it exists)
+	 * @param format        The format of the exported rows
+	 * @param gzip          True to gzip the file
+	 * @param perTurn       True to also export a row after every turn
+	 * @param seats         The number of seats in every game
+	 * @param queueCapacity The number of rows the queue holds
+	 * @throws IOException If the file cannot be created
+	 */
+	public OutcomeExporter(Path file, Format format, boolean gzip, boolean perTurn, int seats, int queueCapacity)
+			throws IOException {
+		this.format = format;
+		this.perTurn = perTurn;
+		this.seats = seats;
+		queue = new ArrayBlockingQueue<>(queueCapacity);
+		reserved = queueCapacity / 4;
+
+		FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		channel = gzip
+				? Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(fileChannel), BUFFER_SIZE))
+				: fileChannel;
+
+		if (format == Format.CSV)
+			queue.add(header());
+
+		writer = new Thread(this::drain, "outcome-exporter");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * @return True if a row is exported after every turn
+	 */
+	public boolean isPerTurn() {
+		return perTurn;
+	}
+
+	/**
+	 * Exports the row of a turn which has just been played; does nothing unless
+	 * the exporter is per turn
+	 *
+	 * @param index The index of the game within its batch
+	 * @param game  The game
+	 */
+	public void turn(long index, MonopolyGame game) {
+		if (perTurn && (queue.remainingCapacity() <= reserved
+				|| !queue.offer(row("turn", index, game, game.getCurrentSeat(), null))))
+			droppedTurns.increment();
+	}
+
+	/**
+	 * Exports the row of a finished game; blocks while the queue is full, until
+	 * the writer makes room
+	 *
+	 * @param index The index of the game within its batch
+	 * @param game  The finished game
+	 */
+	public void game(long index, MonopolyGame game) {
+		if (!enqueue(row("game", index, game, null, game.getWinnerSeat())))
+			lostGames.increment();
+	}
+
+	/**
+	 * @return The number of turn rows dropped because the queue was full
+	 */
+	public long getDroppedTurnRows() {
+		return droppedTurns.sum();
+	}
+
+	/**
+	 * Puts a row on the queue, waiting for room for as long as the writer is
+	 * running
+	 *
+	 * @param row The row
+	 * @return False if the writer has stopped or the thread was interrupted
+	 */
+	private boolean enqueue(String row) {
+		try {
+			while (!queue.offer(row, WAIT_MILLIS, TimeUnit.MILLISECONDS))
+				if (!writer.isAlive())
+					return false;
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * @return The CSV header line
+	 */
+	private String header() {
+		StringBuilder line = new StringBuilder("kind,game,seed,turn,seat,winner");
+		for (int seat = 0; seat < seats; seat++)
+			line.append(",balance").append(seat);
+		for (int seat = 0; seat < seats; seat++)
+			line.append(",tiles").append(seat);
+		return line.append('\n').toString();
+	}
+
+	/**
+	 * Formats a row
+	 *
+	 * @param kind   "game" or "turn"
+	 * @param index  The index of the game within its batch
+	 * @param game   The game
+	 * @param seat   The seat which just played; null for a game row
+	 * @param winner The winning seat; null for a turn row
+	 * @return The row, ending with a new line
+	 */
+	private String row(String kind, long index, MonopolyGame game, Integer seat, Integer winner) {
+		GameState state = game.getState();
+		StringBuilder line = new StringBuilder(128);
+
+		if (format == Format.CSV) {
+			line.append(kind).append(',').append(index).append(',').append(game.getSeed()).append(',')
+					.append(game.getTurnsPlayed()).append(',').append(seat != null ? seat.toString() : "")
+					.append(',').append(winner != null ? winner.toString() : "");
+			for (int s = 0; s < seats; s++)
+				line.append(',').append(state.getBalance(s));
+			for (int s = 0; s < seats; s++)
+				line.append(',').append(Long.bitCount(state.getOwnershipMask(s)));
+		} else {
+			line.append("{\"kind\":\"").append(kind).append("\",\"game\":").append(index).append(",\"seed\":")
+					.append(game.getSeed()).append(",\"turn\":").append(game.getTurnsPlayed());
+			if (seat != null)
+				line.append(",\"seat\":").append(seat);
+			if (winner != null)
+				line.append(",\"winner\":").append(winner);
+			line.append(",\"balances\":[");
+			for (int s = 0; s < seats; s++)
+				line.append(s > 0 ? "," : "").append(state.getBalance(s));
+			line.append("],\"tiles\":[");
+			for (int s = 0; s < seats; s++)
+				line.append(s > 0 ? "," : "").append(Long.bitCount(state.getOwnershipMask(s)));
+			line.append("]}");
+		}
+
+		return line.append('\n').toString();
+	}
+
+	/**
+	 * The writer thread: takes rows off the queue in batches and writes them until
+	 * close() puts END on the queue
+	 */
+	private void drain() {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		List<String> rows = new ArrayList<>(DRAIN_LIMIT);
+
+		try {
+			while (true) {
+				rows.add(queue.take());
+				queue.drainTo(rows, DRAIN_LIMIT - 1);
+
+				for (String row : rows) {
+					if (row == END) {
+						flush(buffer);
+						return;
+					}
+					if (failure != null)
+						continue;
+
+					byte[] bytes = row.getBytes(StandardCharsets.UTF_8);
+					try {
+						if (buffer.remaining() < bytes.length)
+							flush(buffer);
+						if (bytes.length > buffer.capacity())
+							write(ByteBuffer.wrap(bytes));
+						else
+							buffer.put(bytes);
+					} catch (IOException e) {
+						failure = e;
+					}
+				}
+				rows.clear();
+			}
+		} catch (InterruptedException e) {
+			failure = new InterruptedIOException("Exporter interrupted");
+		} catch (IOException e) {
+			failure = e;
+		}
+	}
+
+	/**
+	 * Writes out whatever is in the buffer
+	 */
+	private void flush(ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		write(buffer);
+		buffer.clear();
+	}
+
+	private void write(ByteBuffer bytes) throws IOException {
+		while (bytes.hasRemaining())
+			channel.write(bytes);
+	}
+
+	/**
+	 * Waits for every queued row to be written, then closes the file
+	 *
+	 * @throws IOException If a row could not be written, or a game row was lost
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			if (enqueue(END))
+				writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			channel.close();
+		}
+
+		if (failure != null)
+			throw failure;
+		if (Thread.currentThread().isInterrupted() || writer.isAlive())
+			throw new InterruptedIOException("Interrupted while closing the exporter");
+		if (lostGames.sum() > 0)
+			throw new IOException(lostGames.sum() + " game rows were not written");
+	}
+}
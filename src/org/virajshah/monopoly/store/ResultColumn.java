@@ -0,0 +1,279 @@
+package org.virajshah.monopoly.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+/**
+ * A single column of a ResultStore: one fixed-width integer (1, 2, 4 or 8
+ * bytes) per row, stored back to back after a short header in its own file.
+ * The file is memory-mapped a chunk of rows at a time, so values are written
+ * straight into the page cache and a column of billions of rows can be scanned
+ * without reading any other column.
+ *
+ * Rows may be written in any order and from any number of threads, as long as
+ * no two threads write the same row.
+ *
+ * @author Viraj Shah
+ */
+public class ResultColumn implements Closeable {
+	/**
+	 * Identifies a column file ("MRC1")
+	 */
+	static final int MAGIC = 0x4d524331;
+
+	/**
+	 * The size of the header: magic, width and number of rows
+	 */
+	static final int HEADER_SIZE = 16;
+
+	/**
+	 * Each chunk of the file holds 2^CHUNK_SHIFT rows
+	 */
+	private static final int CHUNK_SHIFT = 20;
+
+	/**
+	 * The index of a row within its chunk
+	 */
+	private static final long ROW_MASK = (1L << CHUNK_SHIFT) - 1;
+
+	/**
+	 * The column file
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * The number of bytes of each value
+	 */
+	private final int width;
+
+	/**
+	 * True if the column is being written
+	 */
+	private final boolean writable;
+
+	/**
+	 * The chunks mapped so far (null for chunks not mapped yet); replaced by a
+	 * longer copy when a later chunk is mapped, so readers never lock
+	 */
+	private volatile MappedByteBuffer[] chunks = new MappedByteBuffer[0];
+
+	/**
+	 * The number of rows in the column
+	 */
+	private long rows;
+
+	private ResultColumn(FileChannel channel, int width, boolean writable, long rows) {
+		this.channel = channel;
+		this.width = width;
+		this.writable = writable;
+		this.rows = rows;
+	}
+
+	/**
+	 * Creates an empty column file
+	 *
+	 * @param file  The column file (overwritten if it exists)
+	 * @param width The number of bytes of each value (1, 2, 4 or 8)
+	 * @return The column, ready to be written
+	 * @throws IOException If the file cannot be created
+	 */
+	static ResultColumn create(Path file, int width) throws IOException {
+		if (width != 1 && width != 2 && width != 4 && width != 8)
+			throw new IllegalArgumentException("Invalid width: " + width);
+
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		ResultColumn column = new ResultColumn(channel, width, true, 0);
+		column.writeHeader();
+		return column;
+	}
+
+	/**
+	 * Opens a column file for reading
+	 *
+	 * @param file The column file
+	 * @return The column
+	 * @throws IOException If the file cannot be read or is not a column file
+	 */
+	static ResultColumn open(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		if (channel.size() < HEADER_SIZE) {
+			channel.close();
+			throw new IOException("Not a result column: " + file);
+		}
+
+		MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+		if (header.getInt() != MAGIC) {
+			channel.close();
+			throw new IOException("Not a result column: " + file);
+		}
+		int width = header.getInt();
+		long rows = header.getLong();
+		if (channel.size() < HEADER_SIZE + rows * width) {
+			channel.close();
+			throw new IOException("Truncated result column: " + file);
+		}
+		return new ResultColumn(channel, width, false, rows);
+	}
+
+	/**
+	 * @return The number of bytes of each value
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return The number of rows in the column
+	 */
+	public long getRows() {
+		return rows;
+	}
+
+	/**
+	 * @param rows The number of rows in the column, written to the header when
+	 *             the column is closed
+	 */
+	void setRows(long rows) {
+		this.rows = rows;
+	}
+
+	/**
+	 * Writes a value
+	 *
+	 * @param row   The row index
+	 * @param value The value, which must fit in the width of the column
+	 */
+	void put(long row, long value) {
+		MappedByteBuffer chunk = chunk(row);
+		int offset = (int) (row & ROW_MASK) * width;
+		switch (width) {
+		case 1:
+			chunk.put(offset, (byte) value);
+			break;
+		case 2:
+			chunk.putShort(offset, (short) value);
+			break;
+		case 4:
+			chunk.putInt(offset, (int) value);
+			break;
+		default:
+			chunk.putLong(offset, value);
+		}
+	}
+
+	/**
+	 * @param row The row index
+	 * @return The value of the row
+	 */
+	public long get(long row) {
+		if (row < 0 || row >= rows)
+			throw new IndexOutOfBoundsException("Row " + row + " of " + rows);
+
+		MappedByteBuffer chunk = chunk(row);
+		int offset = (int) (row & ROW_MASK) * width;
+		switch (width) {
+		case 1:
+			return chunk.get(offset);
+		case 2:
+			return chunk.getShort(offset);
+		case 4:
+			return chunk.getInt(offset);
+		default:
+			return chunk.getLong(offset);
+		}
+	}
+
+	/**
+	 * @return Every value of the column in row order
+	 */
+	public LongStream stream() {
+		return LongStream.range(0, rows).map(this::get);
+	}
+
+	/**
+	 * @return The sum of every value of the column
+	 */
+	public long sum() {
+		long sum = 0;
+		for (long row = 0; row < rows; row++)
+			sum += get(row);
+		return sum;
+	}
+
+	/**
+	 * @param row A row index
+	 * @return The mapped chunk holding the row, mapping it if it is not mapped yet
+	 */
+	private MappedByteBuffer chunk(long row) {
+		long index = row >>> CHUNK_SHIFT;
+		MappedByteBuffer[] mapped = chunks;
+		if (index < mapped.length && mapped[(int) index] != null)
+			return mapped[(int) index];
+		return map((int) index);
+	}
+
+	/**
+	 * Maps a chunk of the file
+	 *
+	 * @param index The index of the chunk
+	 * @return The mapped chunk
+	 */
+	private synchronized MappedByteBuffer map(int index) {
+		MappedByteBuffer[] mapped = chunks;
+		if (index < mapped.length && mapped[index] != null)
+			return mapped[index];
+
+		long start = HEADER_SIZE + ((long) index << CHUNK_SHIFT) * width;
+		long length = (long) width << CHUNK_SHIFT;
+		try {
+			MappedByteBuffer chunk;
+			if (writable) {
+				chunk = channel.map(FileChannel.MapMode.READ_WRITE, start, length);
+			} else {
+				chunk = channel.map(FileChannel.MapMode.READ_ONLY, start,
+						Math.min(length, HEADER_SIZE + rows * width - start));
+			}
+
+			mapped = Arrays.copyOf(mapped, Math.max(mapped.length, index + 1));
+			mapped[index] = chunk;
+			chunks = mapped;
+			return chunk;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes the header (magic, width and number of rows) to the file
+	 */
+	private void writeHeader() throws IOException {
+		MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+		header.putInt(MAGIC).putInt(width).putLong(rows);
+		header.force();
+	}
+
+	/**
+	 * Closes the column; a column being written is flushed to disk and cut down to
+	 * its rows first
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (writable) {
+			for (MappedByteBuffer chunk : chunks)
+				if (chunk != null)
+					chunk.force();
+			writeHeader();
+			chunks = new MappedByteBuffer[0];
+			channel.truncate(HEADER_SIZE + rows * width);
+		}
+		channel.close();
+	}
+}
@@ -0,0 +1,238 @@
+package org.virajshah.monopoly.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.virajshah.monopoly.analysis.GameStatistics;
+import org.virajshah.monopoly.core.GameState;
+import org.virajshah.monopoly.core.MonopolyGame;
+import org.virajshah.monopoly.tiles.BoardLayout;
+
+/**
+ * An append-only store of the outcome of every game of a batch, one row per
+ * game, kept as a directory of fixed-width columns (see ResultColumn) instead
+ * of one record per game. Each game records its seed, winner, turns played,
+ * the final balance and number of tiles of every seat, and the rent collected
+ * on every ownable tile; a row takes under 200 bytes, so billions of games fit
+ * on disk. An analysis which needs a single figure (such as the winner) only
+ * maps that column's file.
+ *
+ * Usage: ResultStore.create(directory, seats), hand it to
+ * BatchSimulator.setResultStore, run the batch and close the store; later,
+ * ResultStore.open(directory) and read the columns.
+ *
+ * @author Viraj Shah
+ */
+public class ResultStore implements Closeable {
+	/**
+	 * The column of each game's seed
+	 */
+	private final ResultColumn seeds;
+
+	/**
+	 * The column of each game's winning seat (GameState.NO_OWNER if the game did
+	 * not finish)
+	 */
+	private final ResultColumn winners;
+
+	/**
+	 * The column of the number of turns played in each game
+	 */
+	private final ResultColumn turns;
+
+	/**
+	 * The columns of each seat's final balance (-1 once bankrupt)
+	 */
+	private final ResultColumn[] balances;
+
+	/**
+	 * The columns of the number of tiles each seat owns at the end of the game
+	 */
+	private final ResultColumn[] assets;
+
+	/**
+	 * The columns of the rent collected on each tile during the game; null for
+	 * tiles which cannot be owned
+	 */
+	private final ResultColumn[] rents = new ResultColumn[GameState.TILES];
+
+	/**
+	 * One past the highest row written
+	 */
+	private final AtomicLong rows;
+
+	private ResultStore(Path directory, int seats, boolean create) throws IOException {
+		seeds = column(directory, "seed", 8, create);
+		winners = column(directory, "winner", 1, create);
+		turns = column(directory, "turns", 2, create);
+
+		balances = new ResultColumn[seats];
+		assets = new ResultColumn[seats];
+		for (int seat = 0; seat < seats; seat++) {
+			balances[seat] = column(directory, "balance." + seat, 4, create);
+			assets[seat] = column(directory, "assets." + seat, 1, create);
+		}
+
+		for (int tile = 0; tile < GameState.TILES; tile++)
+			if (BoardLayout.setOf(tile) != 0)
+				rents[tile] = column(directory, "rent." + tile, 4, create);
+
+		rows = new AtomicLong(seeds.getRows());
+	}
+
+	private static ResultColumn column(Path directory, String name, int width, boolean create) throws IOException {
+		Path file = directory.resolve(name + ".col");
+		return create ? ResultColumn.create(file, width) : ResultColumn.open(file);
+	}
+
+	/**
+	 * Creates an empty store
+	 *
+	 * @param directory The directory of the store (created if it does not exist;
+	 *                  existing columns are overwritten)
+	 * @param seats     The number of seats in every game
+	 * @return The store, ready to be written
+	 * @throws IOException If the columns cannot be created
+	 */
+	public static ResultStore create(Path directory, int seats) throws IOException {
+		Files.createDirectories(directory);
+		return new ResultStore(directory, seats, true);
+	}
+
+	/**
+	 * Opens a store for reading
+	 *
+	 * @param directory The directory of the store
+	 * @return The store
+	 * @throws IOException If the columns cannot be read
+	 */
+	public static ResultStore open(Path directory) throws IOException {
+		int seats = 0;
+		while (Files.exists(directory.resolve("balance." + seats + ".col")))
+			seats++;
+		return new ResultStore(directory, seats, false);
+	}
+
+	/**
+	 * Records the outcome of a finished game. Games may be recorded in any order
+	 * and from any number of threads, as long as each row is recorded once.
+	 *
+	 * @param row        The row of the game (its index in the batch)
+	 * @param game       The finished game
+	 * @param statistics The statistics which followed the game, for the rent
+	 *                   collected on each tile
+	 */
+	public void record(long row, MonopolyGame game, GameStatistics statistics) {
+		GameState state = game.getState();
+
+		seeds.put(row, game.getSeed());
+		winners.put(row, game.getWinnerSeat());
+		turns.put(row, game.getTurnsPlayed());
+		for (int seat = 0; seat < balances.length; seat++) {
+			balances[seat].put(row, state.getBalance(seat));
+			assets[seat].put(row, Long.bitCount(state.getOwnershipMask(seat)));
+		}
+		for (int tile = 0; tile < GameState.TILES; tile++)
+			if (rents[tile] != null)
+				rents[tile].put(row, statistics.getGameRent(tile));
+
+		rows.accumulateAndGet(row + 1, Math::max);
+	}
+
+	/**
+	 * @return The number of rows (one past the highest row recorded)
+	 */
+	public long getRows() {
+		return rows.get();
+	}
+
+	/**
+	 * @return The number of seats in every game
+	 */
+	public int getSeats() {
+		return balances.length;
+	}
+
+	/**
+	 * @return The column of each game's seed
+	 */
+	public ResultColumn getSeeds() {
+		return seeds;
+	}
+
+	/**
+	 * @return The column of each game's winning seat (GameState.NO_OWNER if the
+	 *         game did not finish)
+	 */
+	public ResultColumn getWinners() {
+		return winners;
+	}
+
+	/**
+	 * @return The column of the number of turns played in each game
+	 */
+	public ResultColumn getTurns() {
+		return turns;
+	}
+
+	/**
+	 * @param seat The seat number
+	 * @return The column of the seat's final balance (-1 once bankrupt)
+	 */
+	public ResultColumn getBalances(int seat) {
+		return balances[seat];
+	}
+
+	/**
+	 * @param seat The seat number
+	 * @return The column of the number of tiles the seat owns at the end of the
+	 *         game
+	 */
+	public ResultColumn getAssets(int seat) {
+		return assets[seat];
+	}
+
+	/**
+	 * @param tile The tile index
+	 * @return The column of the rent collected on the tile during the game; null
+	 *         if the tile cannot be owned
+	 */
+	public ResultColumn getRents(int tile) {
+		return rents[tile];
+	}
+
+	/**
+	 * Closes every column; columns being written are flushed to disk first
+	 */
+	@Override
+	public void close() throws IOException {
+		long count = rows.get();
+		for (ResultColumn column : columns()) {
+			column.setRows(count);
+			column.close();
+		}
+	}
+
+	/**
+	 * @return Every column of the store
+	 */
+	private ResultColumn[] columns() {
+		ResultColumn[] all = new ResultColumn[3 + balances.length + assets.length + GameState.TILES];
+		int n = 0;
+		all[n++] = seeds;
+		all[n++] = winners;
+		all[n++] = turns;
+		for (ResultColumn column : balances)
+			all[n++] = column;
+		for (ResultColumn column : assets)
+			all[n++] = column;
+		for (ResultColumn column : rents)
+			if (column != null)
+				all[n++] = column;
+		return Arrays.copyOf(all, n);
+	}
+}
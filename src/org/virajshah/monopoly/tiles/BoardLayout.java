@@ -0,0 +1,208 @@
+package org.virajshah.monopoly.tiles;
+
+/**
+ * Precomputed facts about the layout of the game board, expressed as 40-bit
+ * tile masks (bit i = tile i). Combined with a player's ownership mask, a set
+ * check or set count is a single and plus Long.bitCount.
+ *
+ * @author Viraj Shah
+ */
+public final class BoardLayout {
+	private BoardLayout() {
+		// Utility class
+	}
+
+	/**
+	 * The number of color groups (numbered 1 to 8)
+	 */
+	public static final int GROUPS = 8;
+
+	/**
+	 * The tiles of each color group; index 0 is unused
+	 */
+	private static final long[] GROUP_MASKS = new long[GROUPS + 1];
+
+	/**
+	 * The color group of each tile (0 for tiles which are not properties)
+	 */
+	private static final int[] GROUP_OF = new int[40];
+
+	/**
+	 * The tiles whose completion sets the rent of each tile: its color group, the
+	 * railroads or the utilities (0 for tiles which cannot be owned)
+	 */
+	private static final long[] SET_OF = new long[40];
+
+	/**
+	 * The number of rent states of a tile. A property is in state houses * 2 +
+	 * (1 if its owner holds the whole group), a railroad in the state of the
+	 * number of railroads its owner holds, and a utility in state 1 if its owner
+	 * holds both utilities (0 otherwise).
+	 */
+	public static final int RENT_STATES = 12;
+
+	/**
+	 * The rent of every tile in every rent state, at [tile * RENT_STATES + state].
+	 * Utilities hold the multiplier of the dice roll rather than the rent.
+	 */
+	private static final int[] RENT_TABLE = new int[40 * RENT_STATES];
+
+	/**
+	 * The first railroad reached moving forward from each position (inclusive)
+	 */
+	private static final byte[] NEAREST_RAILROAD = new byte[40];
+
+	/**
+	 * The first utility reached moving forward from each position (inclusive)
+	 */
+	private static final byte[] NEAREST_UTILITY = new byte[40];
+
+	/**
+	 * The four railroads
+	 */
+	public static final long RAILROAD_MASK;
+
+	/**
+	 * The two utilities
+	 */
+	public static final long UTILITY_MASK;
+
+	static {
+		long railroads = 0;
+		long utilities = 0;
+		Tile[] board = Tile.buildBoard(null);
+
+		for (int i = 0; i < board.length; i++) {
+			if (board[i].getType() == Tile.TileType.PROPERTY) {
+				GROUP_OF[i] = ((PropertyTile) board[i]).getGroupNumber();
+				GROUP_MASKS[GROUP_OF[i]] |= 1L << i;
+			} else if (board[i].getType() == Tile.TileType.RAILROAD) {
+				railroads |= 1L << i;
+			} else if (board[i].getType() == Tile.TileType.UTILITY) {
+				utilities |= 1L << i;
+			}
+		}
+
+		RAILROAD_MASK = railroads;
+		UTILITY_MASK = utilities;
+
+		for (int i = 0; i < board.length; i++) {
+			NEAREST_RAILROAD[i] = (byte) firstFrom(RAILROAD_MASK, i);
+			NEAREST_UTILITY[i] = (byte) firstFrom(UTILITY_MASK, i);
+		}
+
+		for (int i = 0; i < board.length; i++) {
+			int row = i * RENT_STATES;
+
+			if (board[i].getType() == Tile.TileType.PROPERTY) {
+				PropertyTile property = (PropertyTile) board[i];
+				SET_OF[i] = GROUP_MASKS[GROUP_OF[i]];
+				for (int houses = 0; houses <= 5; houses++) {
+					RENT_TABLE[row + houses * 2] = property.getBaseRent(0);
+					RENT_TABLE[row + houses * 2 + 1] = houses == 0 ? property.getBaseRent(0) * 2
+							: property.getBaseRent(houses);
+				}
+			} else if (board[i].getType() == Tile.TileType.RAILROAD) {
+				SET_OF[i] = RAILROAD_MASK;
+				for (int owned = 1; owned <= 4; owned++)
+					RENT_TABLE[row + owned] = 25 << (owned - 1);
+			} else if (board[i].getType() == Tile.TileType.UTILITY) {
+				SET_OF[i] = UTILITY_MASK;
+				RENT_TABLE[row] = 4;
+				RENT_TABLE[row + 1] = 10;
+			}
+		}
+	}
+
+	/**
+	 * @param tiles    A tile mask
+	 * @param position The position to start from
+	 * @return The first tile in the mask reached moving forward from the position
+	 *         (inclusive)
+	 */
+	private static int firstFrom(long tiles, int position) {
+		for (int i = 0; i < 40; i++) {
+			int tile = (position + i) % 40;
+			if ((tiles & (1L << tile)) != 0)
+				return tile;
+		}
+		return position;
+	}
+
+	/**
+	 * @param position A position on the board
+	 * @return The first railroad reached moving forward from the position
+	 *         (inclusive)
+	 */
+	public static int nearestRailroad(int position) {
+		return NEAREST_RAILROAD[position];
+	}
+
+	/**
+	 * @param position A position on the board
+	 * @return The first utility reached moving forward from the position
+	 *         (inclusive)
+	 */
+	public static int nearestUtility(int position) {
+		return NEAREST_UTILITY[position];
+	}
+
+	/**
+	 * @param group A color group (1 to 8)
+	 * @return The tiles belonging to the color group
+	 */
+	public static long groupMask(int group) {
+		return GROUP_MASKS[group];
+	}
+
+	/**
+	 * @param tile A tile index
+	 * @return The color group of the tile; 0 if the tile is not a property
+	 */
+	public static int groupOf(int tile) {
+		return GROUP_OF[tile];
+	}
+
+	/**
+	 * @param tile A tile index
+	 * @return The tiles whose completion sets the rent of the tile (its color
+	 *         group, the railroads or the utilities); 0 if the tile cannot be
+	 *         owned
+	 */
+	public static long setOf(int tile) {
+		return SET_OF[tile];
+	}
+
+	/**
+	 * Looks up the rent of a tile in the rent table. Only called when the owner
+	 * of the tile's set or the houses on the tile change; landing on the tile
+	 * reads the result kept by the game state.
+	 *
+	 * @param tile      A tile index
+	 * @param ownerMask The tiles owned by the owner of the tile (0 if unowned)
+	 * @param houses    The number of houses on the tile (5 = hotel)
+	 * @return The rent of landing on the tile; for a utility, the multiplier of
+	 *         the dice roll; 0 for tiles which cannot be owned
+	 */
+	public static int rentOf(int tile, long ownerMask, int houses) {
+		long set = SET_OF[tile];
+		int state;
+
+		if (set == RAILROAD_MASK)
+			state = Long.bitCount(ownerMask & set);
+		else if (set == UTILITY_MASK)
+			state = (ownerMask & set) == set ? 1 : 0;
+		else
+			state = houses * 2 + ((ownerMask & set) == set && set != 0 ? 1 : 0);
+
+		return RENT_TABLE[tile * RENT_STATES + state];
+	}
+
+	/**
+	 * @param group A color group (1 to 8)
+	 * @return The number of properties in the color group
+	 */
+	public static int groupSize(int group) {
+		return Long.bitCount(GROUP_MASKS[group]);
+	}
+}
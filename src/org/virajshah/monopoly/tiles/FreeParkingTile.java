@@ -8,11 +8,6 @@ package org.virajshah.monopoly.tiles;
  * @author Viraj Shah
  */
 public class FreeParkingTile extends Tile {
-	/**
-	 * The amount of money in the Free Parking pool of money
-	 */
-	private int pool;
-
 	/**
 	 * Initializes a new FreeParkingTile object
 	 */
@@ -26,20 +21,20 @@ public class FreeParkingTile extends Tile {
 	 * @param amount The amount of money to add to the Free Parking pool.
 	 */
 	public void addToPool(int amount) {
-		pool += amount;
+		state.getLedger().addToPool(amount);
 	}
 
 	/**
 	 * Clear out the amount of money in the Free Parking Pool
 	 */
 	public void clearPool() {
-		pool = 0;
+		state.getLedger().clearPool();
 	}
 
 	/**
 	 * @return The amount of money in the Free Parking Pool
 	 */
 	public int getPoolAmount() {
-		return pool;
+		return state.getLedger().getFreeParkingPool();
 	}
 }
@@ -1,7 +1,10 @@
 package org.virajshah.monopoly.tiles;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import org.virajshah.monopoly.core.GameState;
+import org.virajshah.monopoly.core.MonopolyGame;
 import org.virajshah.monopoly.core.Player;
 
 /**
@@ -13,16 +16,6 @@ import org.virajshah.monopoly.core.Player;
  */
 public abstract class OwnableTile extends Tile {
 
-	/**
-	 * The Player object which represents who owns the property
-	 */
-	protected Player owner;
-
-	/**
-	 * True if the asset is mortgaged
-	 */
-	protected boolean mortgaged;
-
 	/**
 	 * The price of the property
 	 */
@@ -38,21 +31,46 @@ public abstract class OwnableTile extends Tile {
 	public OwnableTile(TileType tileType, String tileName, int propertyValue) {
 		super(tileType, tileName);
 		this.propertyValue = propertyValue;
-		mortgaged = false;
 	}
 
 	/**
 	 * @return True if the property is owned; false otherwise
 	 */
 	public boolean isOwned() {
-		return owner != null;
+		return state.getOwner(index) != GameState.NO_OWNER;
 	}
 
 	/**
 	 * @return The Player object of the Player who owns this property
 	 */
 	public Player getOwner() {
-		return owner;
+		return state.getPlayer(state.getOwner(index));
+	}
+
+	/**
+	 * @return The tiles owned by the owner of this tile as a bitmask (bit i = tile
+	 *         i); 0 if the tile is not owned
+	 */
+	protected long getOwnerMask() {
+		return state.getOwnershipMask(state.getOwner(index));
+	}
+
+	/**
+	 * Collects the tiles of a bitmask into a list, in board order
+	 *
+	 * @param <T>   The type of tile in the bitmask
+	 * @param tiles The tiles to collect (bit i = tile i)
+	 * @return The tiles of the bitmask
+	 */
+	@SuppressWarnings("unchecked")
+	protected <T extends OwnableTile> ArrayList<T> collectTiles(long tiles) {
+		ArrayList<T> list = new ArrayList<>(Long.bitCount(tiles));
+		MonopolyGame game = getOwner().getGame();
+
+		for (long rest = tiles; rest != 0; rest &= rest - 1)
+			list.add((T) game.tileAt(Long.numberOfTrailingZeros(rest)));
+
+		return list;
 	}
 
 	/**
@@ -61,9 +79,10 @@ public abstract class OwnableTile extends Tile {
 	 */
 	@SuppressWarnings("unused")
 	public void foreclose() {
+		Player owner = getOwner();
 		owner.addBalance(getPropertyValue());
 		owner.removeAsset(owner.getAssets().indexOf(this));
-		owner = null;
+		state.setOwner(index, GameState.NO_OWNER);
 	}
 
 	/**
@@ -73,7 +92,7 @@ public abstract class OwnableTile extends Tile {
 	 */
 	public void buy(Player player) {
 		if (!isOwned()) {
-			owner = player;
+			state.setOwner(index, player.getSeat());
 			player.deductBalance(getPropertyValue());
 			player.addAsset(this);
 		}
@@ -85,10 +104,11 @@ public abstract class OwnableTile extends Tile {
 	 * @param newOwner The owner who the property should be sent to
 	 */
 	public void transferOwnership(Player newOwner) {
+		Player owner = getOwner();
 		int oldIndex = owner.getAssets().indexOf(this);
 		owner.removeAsset(oldIndex);
-		owner = newOwner;
-		owner.addAsset(this);
+		state.setOwner(index, newOwner.getSeat());
+		newOwner.addAsset(this);
 	}
 
 	/**
@@ -97,16 +117,16 @@ public abstract class OwnableTile extends Tile {
 	 * @return True if the property is mortgaged, false otherwise
 	 */
 	public boolean isMortgaged() {
-		return mortgaged;
+		return state.isMortgaged(index);
 	}
 
 	/**
 	 * Mortgages the property
 	 */
 	public void mortgage() {
-		if (!mortgaged) {
-			mortgaged = true;
-			owner.addBalance(propertyValue / 2);
+		if (!isMortgaged()) {
+			state.setMortgaged(index, true);
+			getOwner().addBalance(propertyValue / 2);
 		}
 	}
 
@@ -114,9 +134,9 @@ public abstract class OwnableTile extends Tile {
 	 * Unmortgages a property if the owner has enough funds
 	 */
 	public void unmortgage() {
-		if (mortgaged && owner.getBalance() > 1.1 * ((double) propertyValue / 2)) {
-			mortgaged = false;
-			owner.deductBalance((int) (1.1 * ((double) propertyValue / 2)));
+		if (isMortgaged() && getOwner().getBalance() > 1.1 * ((double) propertyValue / 2)) {
+			state.setMortgaged(index, false);
+			getOwner().deductBalance((int) (1.1 * ((double) propertyValue / 2)));
 		}
 	}
 
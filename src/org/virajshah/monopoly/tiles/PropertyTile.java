@@ -17,11 +17,6 @@ public class PropertyTile extends OwnableTile {
 	 */
 	private int[] rents;
 
-	/**
-	 * The number of houses on this property (*5 = 1 hotel)
-	 */
-	private int houses;
-
 	/**
 	 * The color group (as a number) to which this property belongs to
 	 */
@@ -40,7 +35,6 @@ public class PropertyTile extends OwnableTile {
 		super(TileType.PROPERTY, propertyName, propertyValue);
 		this.propertyValue = propertyValue;
 		rents = rentAmounts;
-		houses = 0;
 		this.group = group;
 	}
 
@@ -50,20 +44,25 @@ public class PropertyTile extends OwnableTile {
 	 * @param n The number of houses to be set
 	 */
 	void setNumberOfHouses(int n) {
-		houses = n;
+		state.setHouses(index, n);
 	}
 
 	public int getHousesInMonopolySet() {
-		int groupNumber = getGroupNumber();
 		int count = 0;
-		for (OwnableTile t : owner.getAssets()) {
-			if (t.type == TileType.PROPERTY && ((PropertyTile) t).getGroupNumber() == groupNumber) {
-				count += ((PropertyTile) t).getNumberOfHouses();
-			}
-		}
+		for (long rest = getOwnerMask() & BoardLayout.groupMask(group); rest != 0; rest &= rest - 1)
+			count += housesOn(Long.numberOfTrailingZeros(rest));
 		return count;
 	}
 
+	/**
+	 * @param tile The index of a property
+	 * @return The number of houses on the property (0 if it has a hotel)
+	 */
+	private int housesOn(int tile) {
+		int n = state.getHouses(tile);
+		return n > 4 ? 0 : n;
+	}
+
 	/**
 	 * Mortgages a property
 	 */
@@ -74,31 +73,27 @@ public class PropertyTile extends OwnableTile {
 
 			for (int i = 0; i < colorSet.size(); i++) {
 				int numHouses = colorSet.get(i).getNumberOfHouses();
-				owner.addBalance(numHouses * getHousePrice() / 2);
+				getOwner().addBalance(numHouses * getHousePrice() / 2);
 				colorSet.get(i).setNumberOfHouses(0);
 			}
 		}
 
-		owner.addBalance(propertyValue / 2);
-		mortgaged = true;
+		getOwner().addBalance(propertyValue / 2);
+		state.setMortgaged(index, true);
 	}
 
 	/**
 	 * @return The number of houses belonging to this property
 	 */
 	public int getNumberOfHouses() {
-		if (houses > 4) {
-			return 0;
-		} else {
-			return houses;
-		}
+		return housesOn(index);
 	}
 
 	/**
 	 * @return True if a hotel belongs to the property; false otherwise
 	 */
 	public boolean hasHotel() {
-		return houses == 5;
+		return state.getHouses(index) == 5;
 	}
 
 	/**
@@ -115,20 +110,21 @@ public class PropertyTile extends OwnableTile {
 		return group;
 	}
 
+	/**
+	 * @param houses The number of houses (5 = hotel)
+	 * @return The rent printed on the title deed for that number of houses
+	 */
+	int getBaseRent(int houses) {
+		return rents[houses];
+	}
+
 	/**
 	 * @return Get the rent amount which is due when someone lands on the property;
 	 *         this depends on the number of houses/hotels, and whether the property
 	 *         is a monopoly
 	 */
 	public int getRent() {
-		if (isMonopoly()) {
-			if (houses == 0)
-				return rents[0] * 2;
-			else
-				return rents[houses];
-		} else {
-			return rents[0];
-		}
+		return state.getRent(index);
 	}
 
 	/**
@@ -138,15 +134,8 @@ public class PropertyTile extends OwnableTile {
 	 * @return True if property belongs to a monopoly set; false otherwise
 	 */
 	public boolean isMonopoly() {
-		int setCount = 0;
-		for (OwnableTile t : getOwner().getAssets())
-			if (t.getType() == Tile.TileType.PROPERTY && ((PropertyTile) t).getGroupNumber() == getGroupNumber())
-				setCount++;
-
-		if (getGroupNumber() == 1 || getGroupNumber() == 8)
-			return setCount == 2;
-		else
-			return setCount == 3;
+		long set = BoardLayout.groupMask(group);
+		return (getOwnerMask() & set) == set;
 	}
 
 	/**
@@ -174,8 +163,8 @@ public class PropertyTile extends OwnableTile {
 	 */
 	public boolean buyHouse() {
 		if (allowedToBuild()) {
-			owner.deductBalance(getHousePrice());
-			this.houses++;
+			getOwner().deductBalance(getHousePrice());
+			state.setHouses(index, state.getHouses(index) + 1);
 			return true;
 		}
 		return false;
@@ -186,26 +175,17 @@ public class PropertyTile extends OwnableTile {
 		if (!isMonopoly())
 			return new ArrayList<>();
 
-		ArrayList<PropertyTile> colorSet = new ArrayList<>();
-
-		for (int i = 0; i < owner.getAssets().size(); i++) {
-			if (owner.getAssets().get(i).getType() == TileType.PROPERTY) {
-				PropertyTile currTile = (PropertyTile) owner.getAssets().get(i);
-				if (currTile.getGroupNumber() == getGroupNumber())
-					colorSet.add(currTile);
-			}
-		}
-
-		return colorSet;
+		return collectTiles(BoardLayout.groupMask(group));
 	}
 
 	/**
 	 * Sell a house back to the bank
 	 */
 	public void sellHouse() {
+		int houses = state.getHouses(index);
 		if (houses > 0) {
-			houses--;
-			owner.addBalance(getHousePrice() / 2);
+			state.setHouses(index, houses - 1);
+			getOwner().addBalance(getHousePrice() / 2);
 		}
 	}
 
@@ -229,17 +209,12 @@ public class PropertyTile extends OwnableTile {
 	 */
 	public boolean allowedToBuild() {
 		if (isMonopoly() && !isMortgaged()) {
-			PropertyTile lowestInSet = this;
+			int houses = housesOn(index);
 
-			for (OwnableTile asset : owner.getAssets()) {
-				if (asset.type == TileType.PROPERTY && ((PropertyTile) asset).getGroupNumber() == group) {
-					PropertyTile property = (PropertyTile) asset;
+			for (long rest = BoardLayout.groupMask(group); rest != 0; rest &= rest - 1)
+				if (housesOn(Long.numberOfTrailingZeros(rest)) < houses)
+					return false;
 
-					if (property.getNumberOfHouses() < lowestInSet.getNumberOfHouses())
-						return false;
-
-				}
-			}
 			return true;
 		}
 		return false;
@@ -253,6 +228,7 @@ public class PropertyTile extends OwnableTile {
 	@Override
 	public String toString() {
 		String append;
+		int houses = state.getHouses(index);
 
 		if (houses <= 4 && houses > 0)
 			append = String.format("(%d houses)", houses);
@@ -23,8 +23,8 @@ public class RailroadTile extends OwnableTile {
 	 */
 	@Override
 	public void mortgage() {
-		owner.addBalance(propertyValue / 2);
-		mortgaged = true;
+		getOwner().addBalance(propertyValue / 2);
+		state.setMortgaged(index, true);
 	}
 
 	/**
@@ -34,24 +34,7 @@ public class RailroadTile extends OwnableTile {
 		if (!isMonopoly())
 			return new ArrayList<>();
 
-		ArrayList<RailroadTile> railroads = new ArrayList<>();
-
-		for (int i = 0; i < owner.getAssets().size(); i++)
-			if (owner.getAssets().get(i).getType() == TileType.RAILROAD)
-				railroads.add((RailroadTile) owner.getAssets().get(i));
-
-		return railroads;
-	}
-
-	/**
-	 * Recursively finds the amount of rent due based on the number of railroads
-	 * owned as given input
-	 *
-	 * @param railsOwned The number of a railroads owned
-	 * @return The amount of rent due on a Railroad
-	 */
-	private int getRent(int railsOwned) {
-		return railsOwned <= 1 ? 25 * Math.max(0, railsOwned) : 2 * getRent(railsOwned - 1);
+		return collectTiles(BoardLayout.RAILROAD_MASK);
 	}
 
 	/**
@@ -61,13 +44,7 @@ public class RailroadTile extends OwnableTile {
 	 * @return The amount of rent due on a Railroad
 	 */
 	public int getRent() {
-		int railsOwned = 0;
-
-		for (Tile asset : owner.getAssets())
-			if (asset.type == TileType.RAILROAD)
-				railsOwned++;
-
-		return getRent(railsOwned);
+		return state.getRent(index);
 	}
 
 	/**
@@ -76,12 +53,7 @@ public class RailroadTile extends OwnableTile {
 	 * @return The number of railroads owned by the owning Player
 	 */
 	public int railroadsInSet() {
-		int setCount = 0;
-		for (Tile t : getOwner().getAssets())
-			if (t.getType() == TileType.RAILROAD)
-				setCount++;
-
-		return setCount;
+		return Long.bitCount(getOwnerMask() & BoardLayout.RAILROAD_MASK);
 	}
 
 	/**
@@ -1,5 +1,6 @@
 package org.virajshah.monopoly.tiles;
 
+import org.virajshah.monopoly.core.GameState;
 
 /**
  * The Tile class is the superclass for all the squares on a Monopoly game board. The class has two fields
@@ -26,6 +27,16 @@ public abstract class Tile {
      */
 	protected final String name;
 
+    /**
+     * The position of this tile on the game board
+     */
+    protected int index;
+
+    /**
+     * The state of the game which this tile belongs to
+     */
+    protected GameState state;
+
     /**
      * Constructs the prototype for all Tile subclasses
      *
@@ -53,11 +64,19 @@ public abstract class Tile {
     }
 
     /**
-     * Builds a game board
+     * @return The position of this tile on the game board
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Builds a game board whose tiles read and write the given game state
      *
+     * @param state The state of the game which the board belongs to
      * @return The Monopoly game board which was built
      */
-    public static Tile[] buildBoard() {
+    public static Tile[] buildBoard(GameState state) {
         Tile[] out = new Tile[40];
 
         out[0] = new GoTile();
@@ -123,6 +142,11 @@ public abstract class Tile {
         out[39] = new PropertyTile("Boardwalk", 400,
                 new int[]{50, 200, 600, 1400, 1700, 2000}, 8);
 
+        for (int i = 0; i < out.length; i++) {
+            out[i].index = i;
+            out[i].state = state;
+        }
+
         return out;
     }
 
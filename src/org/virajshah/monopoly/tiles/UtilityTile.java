@@ -9,8 +9,6 @@ import java.util.ArrayList;
  * @author Viraj Shah
  */
 public class UtilityTile extends OwnableTile {
-	private int lastDiceRoll;
-
 	/**
 	 * Construct a new UtilityTile
 	 *
@@ -27,13 +25,7 @@ public class UtilityTile extends OwnableTile {
 		if (!isMonopoly())
 			return new ArrayList<>();
 
-		ArrayList<UtilityTile> utilSet = new ArrayList<>();
-
-		for (int i = 0; i < owner.getAssets().size(); i++)
-			if (owner.getAssets().get(i).getType() == TileType.UTILITY)
-				utilSet.add((UtilityTile) owner.getAssets().get(i));
-
-		return utilSet;
+		return collectTiles(BoardLayout.UTILITY_MASK);
 	}
 
 	/**
@@ -41,8 +33,8 @@ public class UtilityTile extends OwnableTile {
 	 */
 	@Override
 	public void mortgage() {
-		owner.addBalance(propertyValue / 2);
-		mortgaged = true;
+		getOwner().addBalance(propertyValue / 2);
+		state.setMortgaged(index, true);
 	}
 
 	/**
@@ -51,18 +43,14 @@ public class UtilityTile extends OwnableTile {
 	 * @return True if both utility's are owned by the same Player; false otherwise
 	 */
 	public boolean isMonopoly() {
-		int count = 0;
-		for (Tile asset : owner.getAssets())
-			if (asset.type == TileType.UTILITY)
-				count++;
-		return count == 2;
+		return (getOwnerMask() & BoardLayout.UTILITY_MASK) == BoardLayout.UTILITY_MASK;
 	}
 
 	/**
 	 * @return The amount of rent payment due by landing on this utility
 	 */
 	public int getRent() {
-		return isMonopoly() ? lastDiceRoll * 10 : lastDiceRoll * 4;
+		return state.getRent(index) * state.getLastDiceRoll();
 	}
 
 	/**
@@ -71,7 +59,7 @@ public class UtilityTile extends OwnableTile {
 	 * @param n The sum of two dice rolls
 	 */
 	public void setLastDiceRoll(int n) {
-		lastDiceRoll = n;
+		state.setLastDiceRoll(n);
 	}
 
 	/**